@@ -0,0 +1,87 @@
+package com.masai.notionclone.config;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Compares the per-request JWT cost of the original JwtUtil path, which built
+ * the key and parser on every call and parsed the token three times per
+ * request, against {@link JwtVerifier} on a cache miss and a cache hit.
+ *
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerifierBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private String token;
+    private JwtVerifier cachingVerifier;
+    private JwtVerifier uncachedVerifier;
+
+    @Setup
+    public void setUp() {
+        Date now = new Date();
+        token = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject("bench@example.com")
+                .claim(JwtUtil.CLAIM_USER_ID, 42L)
+                .claim(JwtUtil.CLAIM_ROLE, "USER")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        cachingVerifier = new JwtVerifier(SECRET, 50000, 300);
+        cachingVerifier.verify(token);
+        // A zero TTL expires entries on creation, so every call takes the parse path
+        uncachedVerifier = new JwtVerifier(SECRET, 50000, 0);
+    }
+
+    // Old extractAllClaims: key and parser rebuilt on each call
+    private static Claims oldExtractAllClaims(String token) {
+        return Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims oldParse() {
+        return oldExtractAllClaims(token);
+    }
+
+    // Old filter: extractUsername, then validateToken re-parsed for the username and the expiry
+    @Benchmark
+    public boolean oldRequest() {
+        String username = oldExtractAllClaims(token).getSubject();
+        return username.equals(oldExtractAllClaims(token).getSubject())
+                && !oldExtractAllClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Claims verifierMiss() {
+        return uncachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Claims verifierHit() {
+        return cachingVerifier.verify(token);
+    }
+}
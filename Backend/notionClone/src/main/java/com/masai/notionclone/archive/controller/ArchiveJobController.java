@@ -0,0 +1,33 @@
+package com.masai.notionclone.archive.controller;
+
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.archive.service.SubtreeArchiver;
+import com.masai.notionclone.service.contextService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/archive-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Archive Jobs", description = "Status of background subtree archive and restore jobs")
+@SecurityRequirement(name = "bearerAuth")
+public class ArchiveJobController {
+
+    private final SubtreeArchiver subtreeArchiver;
+    private final contextService contextService;
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get the status of an archive or restore job")
+    public ResponseEntity<ArchiveJobDto> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(subtreeArchiver.getJob(jobId, contextService.getCurrentUserId()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.masai.notionclone.archive.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ArchiveJobDto {
+    private UUID id;
+    // ARCHIVE_PAGE, RESTORE_PAGE, ARCHIVE_BLOCK or RESTORE_BLOCK
+    private String kind;
+    private UUID rootId;
+    // RUNNING, DONE or FAILED
+    private String state;
+    private long processed;
+    private String error;
+}
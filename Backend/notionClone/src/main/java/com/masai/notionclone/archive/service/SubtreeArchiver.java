@@ -0,0 +1,386 @@
+package com.masai.notionclone.archive.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ServiceUnavailableException;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.ordering.RankKeys;
+import com.masai.notionclone.page.service.PageTreeVersions;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Archives and restores whole page or block subtrees with set-based SQL. Each
+ * archived row records the root it went down with (archived_with), so a
+ * restore brings back exactly that subtree and not rows deleted on their own.
+ * Restoring a row that went down with an ancestor first re-roots its part of
+ * that subtree onto it, so it comes back with its own descendants and blocks.
+ *
+ * Subtrees up to archive.sync-limit rows are handled in the caller's
+ * transaction. Larger ones archive the root right away and hand the rest to a
+ * background job that commits chunk by chunk; its progress is kept in Redis.
+ * Callers check access before calling in.
+ */
+@Slf4j
+@Service
+public class SubtreeArchiver {
+
+    public enum Kind { ARCHIVE_PAGE, RESTORE_PAGE, ARCHIVE_BLOCK, RESTORE_BLOCK }
+
+    private static final String JOB_PREFIX = "archive-job:";
+    private static final Duration JOB_TTL = Duration.ofDays(1);
+
+    // Live pages under (and including) the root; branches deleted on their own are not entered.
+    // UNION rather than UNION ALL so a parent cycle in bad data ends the recursion instead of looping
+    private static final String PAGE_TREE =
+            "WITH RECURSIVE tree AS (" +
+            "SELECT id FROM pages WHERE id = ? " +
+            "UNION " +
+            "SELECT c.id FROM pages c JOIN tree t ON c.parent_id = t.id WHERE c.archived = false) ";
+
+    private static final String BLOCK_TREE =
+            "WITH RECURSIVE tree AS (" +
+            "SELECT id FROM blocks WHERE id = ? " +
+            "UNION " +
+            "SELECT c.id FROM blocks c JOIN tree t ON c.parent_id = t.id WHERE c.archived = false) ";
+
+    private static final String ARCHIVE_SET = "SET archived = true, archived_with = ?, version = version + 1, updated_at = now() ";
+    private static final String RESTORE_SET = "SET archived = false, archived_with = NULL, version = version + 1, updated_at = now() ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheManager cacheManager;
+    private final PageTreeVersions pageTreeVersions;
+    private final Executor executor;
+    private final int syncLimit;
+    private final int chunkSize;
+
+    public SubtreeArchiver(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           RedisTemplate<String, String> redisTemplate,
+                           CacheManager cacheManager,
+                           PageTreeVersions pageTreeVersions,
+                           @Qualifier("customExecutor") Executor executor,
+                           @Value("${archive.sync-limit:2000}") int syncLimit,
+                           @Value("${archive.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.pageTreeVersions = pageTreeVersions;
+        this.executor = executor;
+        this.syncLimit = syncLimit;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Archives the page, its live descendants and all their blocks. Returns
+     * null when done in place, otherwise the background job finishing it.
+     */
+    public ArchiveJobDto archivePage(UUID workspaceId, UUID pageId, Long userId) {
+        Long rows = jdbcTemplate.queryForObject(PAGE_TREE +
+                        "SELECT (SELECT count(*) FROM (SELECT 1 FROM tree LIMIT ?) p) + " +
+                        "(SELECT count(*) FROM (SELECT 1 FROM blocks WHERE page_id IN (SELECT id FROM tree) " +
+                        "AND archived = false LIMIT ?) b)",
+                Long.class, pageId, syncLimit + 1, syncLimit + 1);
+        if (rows != null && rows <= syncLimit) {
+            List<UUID> pageIds = jdbcTemplate.queryForList(PAGE_TREE + ", archived_blocks AS (" +
+                            "UPDATE blocks " + ARCHIVE_SET + "WHERE page_id IN (SELECT id FROM tree) AND archived = false) " +
+                            "UPDATE pages " + ARCHIVE_SET + "WHERE id IN (SELECT id FROM tree) AND archived = false RETURNING id",
+                    UUID.class, pageId, pageId, pageId);
+            evictPages(pageIds);
+            return null;
+        }
+
+        // The root goes now so the page disappears immediately; descendants follow in chunks
+        jdbcTemplate.update("UPDATE pages " + ARCHIVE_SET + "WHERE id = ?", pageId, pageId);
+        evictPages(List.of(pageId));
+        return startJob(Kind.ARCHIVE_PAGE, pageId, userId, progress -> {
+            List<UUID> pageIds = jdbcTemplate.queryForList(PAGE_TREE + "SELECT id FROM tree", UUID.class, pageId);
+            for (int from = 0; from < pageIds.size(); from += chunkSize) {
+                List<UUID> chunk = pageIds.subList(from, Math.min(from + chunkSize, pageIds.size()));
+                drain(progress, () -> update("UPDATE blocks " + ARCHIVE_SET + "WHERE id IN (" +
+                        "SELECT id FROM blocks WHERE page_id = ANY(?) AND archived = false LIMIT ?)", pageId, chunk, chunkSize));
+                progress.accept(inTransaction(() -> {
+                    evictPages(chunk);
+                    return update("UPDATE pages " + ARCHIVE_SET + "WHERE id = ANY(?) AND archived = false", pageId, chunk);
+                }));
+            }
+            pageTreeVersions.bump(workspaceId);
+        });
+    }
+
+    /**
+     * Restores everything archived together with the page. If its parent is
+     * still archived the page comes back at the top level of the workspace.
+     * A page archived as part of an ancestor's subtree is taken out of that
+     * subtree first, together with its descendants and their blocks.
+     */
+    public ArchiveJobDto restorePage(UUID workspaceId, UUID pageId, Long userId) {
+        UUID archivedWith = jdbcTemplate.queryForObject(
+                "SELECT archived_with FROM pages WHERE id = ?", UUID.class, pageId);
+        if (archivedWith != null && !archivedWith.equals(pageId)) {
+            jdbcTemplate.update("WITH RECURSIVE sub AS (" +
+                            "SELECT id FROM pages WHERE id = ? " +
+                            "UNION " +
+                            "SELECT c.id FROM pages c JOIN sub s ON c.parent_id = s.id WHERE c.archived_with = ?), " +
+                            "rerooted_blocks AS (" +
+                            "UPDATE blocks SET archived_with = ? WHERE archived_with = ? AND page_id IN (SELECT id FROM sub)) " +
+                            "UPDATE pages SET archived_with = ? WHERE archived_with = ? AND id IN (SELECT id FROM sub)",
+                    pageId, archivedWith, pageId, archivedWith, pageId, archivedWith);
+        }
+        if (parentArchived("pages", pageId)) {
+            String rankKey = RankKeys.between(jdbcTemplate.queryForObject(
+                    "SELECT max(rank_key) FROM pages WHERE workspace_id = ? AND parent_id IS NULL AND archived = false",
+                    String.class, workspaceId), null);
+            jdbcTemplate.update("UPDATE pages SET parent_id = NULL, rank_key = ? WHERE id = ?", rankKey, pageId);
+        }
+
+        if (countArchivedWith(pageId) <= syncLimit) {
+            List<UUID> pageIds = jdbcTemplate.queryForList("WITH restored_blocks AS (" +
+                            "UPDATE blocks " + RESTORE_SET + "WHERE archived_with = ?) " +
+                            "UPDATE pages " + RESTORE_SET + "WHERE archived_with = ? OR id = ? RETURNING id",
+                    UUID.class, pageId, pageId, pageId);
+            evictPages(pageIds);
+            return null;
+        }
+
+        // The root comes back last, so the page only reappears once its subtree is whole
+        return startJob(Kind.RESTORE_PAGE, pageId, userId, progress -> {
+            drain(progress, () -> update("UPDATE blocks " + RESTORE_SET + "WHERE id IN (" +
+                    "SELECT id FROM blocks WHERE archived_with = ? LIMIT ?)", pageId, chunkSize));
+            drain(progress, () -> {
+                List<UUID> chunk = jdbcTemplate.queryForList("UPDATE pages " + RESTORE_SET + "WHERE id IN (" +
+                        "SELECT id FROM pages WHERE archived_with = ? AND id <> ? LIMIT ?) RETURNING id",
+                        UUID.class, pageId, pageId, chunkSize);
+                evictPages(chunk);
+                return chunk.size();
+            });
+            progress.accept(inTransaction(() -> {
+                evictPages(List.of(pageId));
+                return jdbcTemplate.update("UPDATE pages " + RESTORE_SET + "WHERE id = ?", pageId);
+            }));
+            pageTreeVersions.bump(workspaceId);
+        });
+    }
+
+    public ArchiveJobDto archiveBlock(UUID pageId, UUID blockId, Long userId) {
+        Long rows = jdbcTemplate.queryForObject(BLOCK_TREE + "SELECT count(*) FROM (SELECT 1 FROM tree LIMIT ?) b",
+                Long.class, blockId, syncLimit + 1);
+        if (rows != null && rows <= syncLimit) {
+            jdbcTemplate.update(BLOCK_TREE + "UPDATE blocks " + ARCHIVE_SET +
+                    "WHERE id IN (SELECT id FROM tree) AND archived = false", blockId, blockId);
+            evictPageBlocks(pageId);
+            return null;
+        }
+
+        jdbcTemplate.update("UPDATE blocks " + ARCHIVE_SET + "WHERE id = ?", blockId, blockId);
+        evictPageBlocks(pageId);
+        return startJob(Kind.ARCHIVE_BLOCK, blockId, userId, progress -> {
+            List<UUID> blockIds = jdbcTemplate.queryForList(BLOCK_TREE + "SELECT id FROM tree", UUID.class, blockId);
+            for (int from = 0; from < blockIds.size(); from += chunkSize) {
+                List<UUID> chunk = blockIds.subList(from, Math.min(from + chunkSize, blockIds.size()));
+                progress.accept(inTransaction(() -> {
+                    evictPageBlocks(pageId);
+                    return update("UPDATE blocks " + ARCHIVE_SET + "WHERE id = ANY(?) AND archived = false", blockId, chunk);
+                }));
+            }
+        });
+    }
+
+    public ArchiveJobDto restoreBlock(UUID pageId, UUID blockId, Long userId) {
+        UUID archivedWith = jdbcTemplate.queryForObject(
+                "SELECT archived_with FROM blocks WHERE id = ?", UUID.class, blockId);
+        if (archivedWith != null && !archivedWith.equals(blockId)) {
+            jdbcTemplate.update("WITH RECURSIVE sub AS (" +
+                            "SELECT id FROM blocks WHERE id = ? " +
+                            "UNION " +
+                            "SELECT c.id FROM blocks c JOIN sub s ON c.parent_id = s.id WHERE c.archived_with = ?) " +
+                            "UPDATE blocks SET archived_with = ? WHERE archived_with = ? AND id IN (SELECT id FROM sub)",
+                    blockId, archivedWith, blockId, archivedWith);
+        }
+        if (parentArchived("blocks", blockId)) {
+            String rankKey = RankKeys.between(jdbcTemplate.queryForObject(
+                    "SELECT max(rank_key) FROM blocks WHERE page_id = ? AND parent_id IS NULL AND archived = false",
+                    String.class, pageId), null);
+            jdbcTemplate.update("UPDATE blocks SET parent_id = NULL, rank_key = ? WHERE id = ?", rankKey, blockId);
+        }
+
+        if (countArchivedWith(blockId) <= syncLimit) {
+            jdbcTemplate.update("UPDATE blocks " + RESTORE_SET + "WHERE archived_with = ? OR id = ?", blockId, blockId);
+            evictPageBlocks(pageId);
+            return null;
+        }
+
+        return startJob(Kind.RESTORE_BLOCK, blockId, userId, progress -> {
+            drain(progress, () -> {
+                evictPageBlocks(pageId);
+                return update("UPDATE blocks " + RESTORE_SET + "WHERE id IN (" +
+                        "SELECT id FROM blocks WHERE archived_with = ? AND id <> ? LIMIT ?)", blockId, blockId, chunkSize);
+            });
+            progress.accept(inTransaction(() -> {
+                evictPageBlocks(pageId);
+                return jdbcTemplate.update("UPDATE blocks " + RESTORE_SET + "WHERE id = ?", blockId);
+            }));
+        });
+    }
+
+    public ArchiveJobDto getJob(UUID jobId, Long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(JOB_PREFIX + jobId);
+        if (fields.isEmpty()) {
+            throw new BadRequestException("Archive job not found");
+        }
+        if (!String.valueOf(userId).equals(fields.get("userId"))) {
+            throw new UnauthorizedException("You don't have permission to view this job");
+        }
+        return new ArchiveJobDto(jobId,
+                (String) fields.get("kind"),
+                UUID.fromString((String) fields.get("rootId")),
+                (String) fields.get("state"),
+                Long.parseLong((String) fields.getOrDefault("processed", "0")),
+                (String) fields.get("error"));
+    }
+
+    // The old parent's sibling keys mean nothing at the top level, so re-rooted rows are appended there
+    private boolean parentArchived(String table, UUID id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + " c JOIN " +
+                table + " p ON p.id = c.parent_id WHERE c.id = ? AND p.archived = true)", Boolean.class, id));
+    }
+
+    private long countArchivedWith(UUID rootId) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT (SELECT count(*) FROM (SELECT 1 FROM pages WHERE archived_with = ? LIMIT ?) p) + " +
+                "(SELECT count(*) FROM (SELECT 1 FROM blocks WHERE archived_with = ? LIMIT ?) b)",
+                Long.class, rootId, syncLimit + 1, rootId, syncLimit + 1);
+        return rows != null ? rows : 0;
+    }
+
+    private ArchiveJobDto startJob(Kind kind, UUID rootId, Long userId, Job job) {
+        UUID jobId = UUID.randomUUID();
+        String key = JOB_PREFIX + jobId;
+        Map<String, String> fields = new HashMap<>();
+        fields.put("kind", kind.name());
+        fields.put("rootId", rootId.toString());
+        fields.put("userId", String.valueOf(userId));
+        fields.put("state", "RUNNING");
+        fields.put("processed", "0");
+        try {
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, JOB_TTL);
+        } catch (RuntimeException e) {
+            // Without a status record the client couldn't follow the job; fail before anything commits
+            throw new ServiceUnavailableException("Large subtree operations are temporarily unavailable");
+        }
+
+        // Started after commit so the job sees the root change and never races its own request
+        AfterCommit.run(() -> {
+            try {
+                executor.execute(() -> runJob(key, job));
+            } catch (RejectedExecutionException e) {
+                log.warn("Archive executor is full, running {} on the request thread", key);
+                runJob(key, job);
+            }
+        });
+        return new ArchiveJobDto(jobId, kind.name(), rootId, "RUNNING", 0, null);
+    }
+
+    private void runJob(String key, Job job) {
+        try {
+            job.run(processed -> {
+                try {
+                    redisTemplate.opsForHash().increment(key, "processed", processed);
+                } catch (RuntimeException e) {
+                    log.debug("Could not record progress for {}: {}", key, e.getMessage());
+                }
+            });
+            setState(key, "DONE", null);
+        } catch (RuntimeException e) {
+            // Rows done so far stay done; archiving or restoring the root again picks up the rest
+            log.error("Archive job {} failed", key, e);
+            setState(key, "FAILED", e.getMessage());
+        }
+    }
+
+    private void setState(String key, String state, String error) {
+        try {
+            redisTemplate.opsForHash().put(key, "state", state);
+            if (error != null) {
+                redisTemplate.opsForHash().put(key, "error", error);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not record state {} for {}: {}", state, key, e.getMessage());
+        }
+    }
+
+    // Repeats a bounded statement, one transaction each, until it touches less than a full chunk
+    private void drain(LongConsumer progress, ChunkStep step) {
+        int rows;
+        do {
+            rows = inTransaction(step);
+            progress.accept(rows);
+        } while (rows >= chunkSize);
+    }
+
+    private int inTransaction(ChunkStep step) {
+        Integer rows = transactionTemplate.execute(status -> step.run());
+        return rows != null ? rows : 0;
+    }
+
+    // List arguments are bound as uuid[] for "= ANY(?)"
+    private int update(String sql, Object... args) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof List) {
+                    ps.setArray(i + 1, con.createArrayOf("uuid", ((List<?>) args[i]).toArray()));
+                } else {
+                    ps.setObject(i + 1, args[i]);
+                }
+            }
+            return ps;
+        });
+    }
+
+    // Transaction-aware caches apply these once the surrounding statement commits
+    private void evictPages(List<UUID> pageIds) {
+        for (UUID pageId : pageIds) {
+            cacheManager.getCache(CacheConfig.PAGES).evict(pageId);
+            cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+        }
+    }
+
+    private void evictPageBlocks(UUID pageId) {
+        cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+    }
+
+    @FunctionalInterface
+    private interface Job {
+        void run(LongConsumer progress);
+    }
+
+    @FunctionalInterface
+    private interface ChunkStep {
+        int run();
+    }
+}
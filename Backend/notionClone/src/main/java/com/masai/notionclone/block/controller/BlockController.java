@@ -1,9 +1,12 @@
 package com.masai.notionclone.block.controller;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.block.dto.BlockBatchRequest;
 import com.masai.notionclone.block.dto.BlockDto;
 import com.masai.notionclone.block.dto.CreateBlockRequest;
 import com.masai.notionclone.block.dto.MoveBlockRequest;
 import com.masai.notionclone.block.dto.UpdateBlockRequest;
+import com.masai.notionclone.block.service.BlockBatchService;
 import com.masai.notionclone.block.service.BlockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -25,6 +28,7 @@ import java.util.UUID;
 public class BlockController {
 
     private final BlockService blockService;
+    private final BlockBatchService blockBatchService;
 
     @GetMapping("/page/{pageId}")
     @Operation(summary = "Get all blocks for a page", 
@@ -33,6 +37,22 @@ public class BlockController {
         return ResponseEntity.ok(blockService.getBlocksByPage(pageId));
     }
 
+    @GetMapping("/page/{pageId}/tree")
+    @Operation(summary = "Get the block tree of a page",
+               description = "All live blocks of a page in one call, nested under their parents in position order")
+    public ResponseEntity<List<BlockDto>> getBlockTree(@PathVariable UUID pageId) {
+        return ResponseEntity.ok(blockService.getBlockTree(pageId));
+    }
+
+    @PostMapping("/page/{pageId}/batch")
+    @Operation(summary = "Apply a batch of block operations",
+               description = "Creates, updates, moves and archives blocks of one page in order, all or nothing")
+    public ResponseEntity<List<BlockDto>> applyBatch(
+            @PathVariable UUID pageId,
+            @Valid @RequestBody BlockBatchRequest request) {
+        return ResponseEntity.ok(blockBatchService.apply(pageId, request.getOperations()));
+    }
+
     @GetMapping("/{blockId}")
     @Operation(summary = "Get block by ID", 
                description = "Retrieves a specific block by its ID")
@@ -61,10 +81,25 @@ public class BlockController {
 
     @DeleteMapping("/{blockId}")
     @Operation(summary = "Delete a block", 
-               description = "Soft deletes a block (marks as archived)")
-    public ResponseEntity<Void> deleteBlock(@PathVariable UUID blockId) {
-        blockService.deleteBlock(blockId);
-        return ResponseEntity.noContent().build();
+               description = "Soft deletes a block and its child blocks; 202 with a job to poll for very large subtrees")
+    public ResponseEntity<ArchiveJobDto> deleteBlock(@PathVariable UUID blockId) {
+        return archiveResponse(blockService.deleteBlock(blockId));
+    }
+
+    @PostMapping("/{blockId}/restore")
+    @Operation(summary = "Restore a block", 
+               description = "Restores an archived block and the child blocks archived with it")
+    public ResponseEntity<ArchiveJobDto> restoreBlock(@PathVariable UUID blockId) {
+        return archiveResponse(blockService.restoreBlock(blockId));
+    }
+
+    private ResponseEntity<ArchiveJobDto> archiveResponse(ArchiveJobDto job) {
+        if (job == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/archive-jobs/" + job.getId()))
+                .body(job);
     }
 
     @PostMapping("/{blockId}/move")
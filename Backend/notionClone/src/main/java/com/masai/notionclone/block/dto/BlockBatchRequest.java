@@ -0,0 +1,14 @@
+package com.masai.notionclone.block.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+public class BlockBatchRequest {
+    // Applied in order, all or nothing
+    @NotEmpty(message = "Operations are required")
+    private List<@Valid BlockOperation> operations;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -18,10 +19,13 @@ public class BlockDto {
     private String content;
     private UUID pageId;
     private UUID parentId;
-    private int position;
+    private String rankKey;
     private boolean archived;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long createdBy;
     private Long updatedBy;
+    // Only set by the page tree endpoint, in rank order
+    private List<BlockDto> children;
 }
@@ -0,0 +1,29 @@
+package com.masai.notionclone.block.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+/**
+ * One step of a batch. CREATE takes a client-generated id that later steps
+ * may refer to; MOVE and CREATE use parentId (null for the top level) and
+ * position (appended when absent); UPDATE may carry the version it was based on.
+ */
+@Data
+public class BlockOperation {
+
+    public enum Op { CREATE, UPDATE, MOVE, ARCHIVE }
+
+    @NotNull(message = "Operation is required")
+    private Op op;
+
+    @NotNull(message = "Block ID is required")
+    private UUID id;
+
+    private String type;
+    private String content;
+    private UUID parentId;
+    private Integer position;
+    private Long version;
+}
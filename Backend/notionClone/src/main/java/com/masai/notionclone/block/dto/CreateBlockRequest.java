@@ -18,5 +18,6 @@ public class CreateBlockRequest {
     private UUID pageId;
     
     private UUID parentId;
-    private int position = 0;
+    // Index among the siblings; appended at the end when absent
+    private Integer position;
 }
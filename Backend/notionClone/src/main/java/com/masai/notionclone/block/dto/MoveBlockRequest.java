@@ -7,5 +7,5 @@ import java.util.UUID;
 @Data
 public class MoveBlockRequest {
     private UUID newParentId;
-    private int newPosition;
+    private Integer newPosition;
 }
@@ -11,4 +11,7 @@ public class UpdateBlockRequest {
     
     private String type;
     private Boolean archived;
+    
+    // Optional: reject the update with 409 unless the block is still at this version
+    private Long version;
 }
@@ -1,6 +1,7 @@
 package com.masai.notionclone.block.model;
 
 import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.content.ExternalizableContent;
 import com.masai.notionclone.page.model.Page;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,7 +15,7 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "blocks")
-public class Block {
+public class Block implements ExternalizableContent {
     
     @Id
     @GeneratedValue(generator = "uuid2")
@@ -24,9 +25,13 @@ public class Block {
     @Column(nullable = false)
     private String type;
     
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Inline body; null when the body is over the threshold and kept in content_blobs
+    @Column(columnDefinition = "TEXT")
     private String content;
     
+    @Column(name = "content_external", nullable = false, columnDefinition = "boolean default false")
+    private boolean contentExternal;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "page_id", nullable = false)
     private Page page;
@@ -35,11 +40,20 @@ public class Block {
     @JoinColumn(name = "parent_id")
     private Block parent;
     
-    @Column(nullable = false)
-    private int position;
+    // Lexicographic sibling order, see RankKeys; "C" collation so the database sorts like String.compareTo
+    @Column(name = "rank_key", columnDefinition = "text COLLATE \"C\"")
+    private String rankKey;
     
     @Column(nullable = false)
     private boolean archived = false;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Bumped only by synchronous body writes; staged autosaves are checked against it, see BlockWriteBuffer
+    @Column(name = "content_revision", nullable = false, columnDefinition = "bigint default 0")
+    private long contentRevision;
     
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -62,8 +76,9 @@ public class Block {
         dto.setContent(this.content);
         dto.setPageId(this.page != null ? this.page.getId() : null);
         dto.setParentId(this.parent != null ? this.parent.getId() : null);
-        dto.setPosition(this.position);
+        dto.setRankKey(this.rankKey);
         dto.setArchived(this.archived);
+        dto.setVersion(this.version);
         dto.setCreatedAt(this.createdAt);
         dto.setUpdatedAt(this.updatedAt);
         dto.setCreatedBy(this.createdBy);
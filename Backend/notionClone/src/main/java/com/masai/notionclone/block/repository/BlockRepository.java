@@ -15,27 +15,37 @@ import java.util.UUID;
 @Repository
 public interface BlockRepository extends JpaRepository<Block, UUID> {
     
-    List<Block> findByPageIdAndArchivedFalseOrderByPosition(UUID pageId);
+    List<Block> findByPageIdAndArchivedFalseOrderByRankKeyAscIdAsc(UUID pageId);
     
-    List<Block> findByParentIdAndArchivedFalseOrderByPosition(UUID parentId);
+    List<Block> findByParentIdAndArchivedFalseOrderByRankKeyAscIdAsc(UUID parentId);
     
     Optional<Block> findByIdAndArchivedFalse(UUID id);
     
-    @Query("SELECT MAX(b.position) FROM Block b WHERE b.page.id = :pageId AND b.parent IS NULL")
-    Integer findMaxPositionByPageId(@Param("pageId") UUID pageId);
-    
-    @Query("SELECT MAX(b.position) FROM Block b WHERE b.parent.id = :parentId")
-    Integer findMaxPositionByParentId(@Param("parentId") UUID parentId);
-    
-    @Modifying
-    @Query("UPDATE Block b SET b.position = b.position + 1 " +
-           "WHERE b.page.id = :pageId AND b.position >= :position AND b.parent IS NULL")
-    void incrementPositionsFrom(@Param("pageId") UUID pageId, @Param("position") int position);
-    
-    @Modifying
-    @Query("UPDATE Block b SET b.position = b.position + 1 " +
-           "WHERE b.parent.id = :parentId AND b.position >= :position")
-    void incrementChildPositionsFrom(@Param("parentId") UUID parentId, @Param("position") int position);
+    @Query("SELECT MAX(b.rankKey) FROM Block b WHERE b.page.id = :pageId AND b.parent IS NULL")
+    String findMaxRankKeyByPageId(@Param("pageId") UUID pageId);
+    
+    @Query("SELECT MAX(b.rankKey) FROM Block b WHERE b.parent.id = :parentId")
+    String findMaxRankKeyByParentId(@Param("parentId") UUID parentId);
+    
+    // Two neighbouring sibling keys starting at :offset, for placing a block at an index
+    @Query(value = "SELECT rank_key FROM blocks WHERE page_id = :pageId AND parent_id IS NULL " +
+                   "AND archived = false AND id <> :excludeId ORDER BY rank_key, id LIMIT 2 OFFSET :offset",
+           nativeQuery = true)
+    List<String> findRootRankKeyWindow(@Param("pageId") UUID pageId, @Param("excludeId") UUID excludeId,
+                                       @Param("offset") int offset);
+    
+    @Query(value = "SELECT rank_key FROM blocks WHERE parent_id = :parentId " +
+                   "AND archived = false AND id <> :excludeId ORDER BY rank_key, id LIMIT 2 OFFSET :offset",
+           nativeQuery = true)
+    List<String> findChildRankKeyWindow(@Param("parentId") UUID parentId, @Param("excludeId") UUID excludeId,
+                                        @Param("offset") int offset);
+    
+    // Walks up from :blockId; true when :rootId is the block itself or one of its ancestors
+    @Query(value = "WITH RECURSIVE up AS (SELECT id, parent_id FROM blocks WHERE id = :blockId " +
+                   "UNION SELECT b.id, b.parent_id FROM blocks b JOIN up u ON b.id = u.parent_id) " +
+                   "SELECT EXISTS (SELECT 1 FROM up WHERE id = :rootId)",
+           nativeQuery = true)
+    boolean isInSubtree(@Param("blockId") UUID blockId, @Param("rootId") UUID rootId);
     
     @Modifying
     @Query("UPDATE Block b SET b.archived = true WHERE b.id = :blockId")
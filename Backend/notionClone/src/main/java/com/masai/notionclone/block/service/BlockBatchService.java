@@ -0,0 +1,480 @@
+package com.masai.notionclone.block.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.block.dto.BlockOperation;
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.block.repository.BlockRepository;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ConflictException;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+import com.masai.notionclone.ordering.RankKeyRebalancer;
+import com.masai.notionclone.ordering.RankKeyRebalancer.RankedTable;
+import com.masai.notionclone.ordering.RankKeys;
+import com.masai.notionclone.realtime.dto.BlockEvent;
+import com.masai.notionclone.realtime.service.PageEventBroadcaster;
+import com.masai.notionclone.service.contextService;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+/**
+ * Applies an ordered list of block operations on one page in a single
+ * transaction. The page's live block outline (no bodies) is loaded once and
+ * the operations run against it in memory, so positions and parent checks
+ * cost no queries; the net result is then written with JDBC batches. Rows
+ * that existed before are updated against the version they were read at,
+ * so a concurrent edit fails the whole batch instead of being overwritten.
+ */
+@Service
+public class BlockBatchService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Comparator<Node> SIBLING_ORDER =
+            Comparator.comparing((Node n) -> n.rankKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(n -> n.id);
+
+    private static final String INSERT =
+            "INSERT INTO blocks (id, type, content, content_external, page_id, parent_id, rank_key, " +
+            "archived, created_at, updated_at, created_by, updated_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, false, now(), now(), ?, ?, 0)";
+
+    // Content columns only change when the batch set a body (the flag parameters). Only then
+    // does content_revision move, so a body staged for a block that is merely moved, retyped or
+    // archived here still flushes, and overlay() reports it truthfully.
+    private static final String UPDATE =
+            "UPDATE blocks SET type = ?, parent_id = ?, rank_key = ?, archived = ?, archived_with = ?, " +
+            "content = CASE WHEN ? THEN ? ELSE content END, " +
+            "content_external = CASE WHEN ? THEN ? ELSE content_external END, " +
+            "content_revision = CASE WHEN ? THEN content_revision + 1 ELSE content_revision END, " +
+            "updated_by = ?, updated_at = now(), version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockRepository blockRepository;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final contextService contextService;
+    private final RankKeyRebalancer rankKeyRebalancer;
+    private final ContentStore contentStore;
+    private final CacheManager cacheManager;
+    private final BlockWriteBuffer blockWriteBuffer;
+    private final PageEventBroadcaster pageEventBroadcaster;
+    private final BlockOperationLog blockOperationLog;
+    private final int maxOperations;
+
+    public BlockBatchService(JdbcTemplate jdbcTemplate,
+                             BlockRepository blockRepository,
+                             WorkspaceAccessCache workspaceAccessCache,
+                             contextService contextService,
+                             RankKeyRebalancer rankKeyRebalancer,
+                             ContentStore contentStore,
+                             CacheManager cacheManager,
+                             BlockWriteBuffer blockWriteBuffer,
+                             PageEventBroadcaster pageEventBroadcaster,
+                             BlockOperationLog blockOperationLog,
+                             @Value("${blocks.batch.max-operations:1000}") int maxOperations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockRepository = blockRepository;
+        this.workspaceAccessCache = workspaceAccessCache;
+        this.contextService = contextService;
+        this.rankKeyRebalancer = rankKeyRebalancer;
+        this.contentStore = contentStore;
+        this.cacheManager = cacheManager;
+        this.blockWriteBuffer = blockWriteBuffer;
+        this.pageEventBroadcaster = pageEventBroadcaster;
+        this.blockOperationLog = blockOperationLog;
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Returns the resulting state of every block the batch touched, in the
+     * order they were first mentioned. Archived blocks come back with archived = true.
+     */
+    @Transactional
+    public List<BlockDto> apply(UUID pageId, List<BlockOperation> operations) {
+        if (operations.size() > maxOperations) {
+            throw new BadRequestException("A batch can hold at most " + maxOperations + " operations");
+        }
+        Long userId = contextService.getCurrentUserId();
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (workspaceId == null || !workspaceAccessCache.isMember(workspaceId, userId)) {
+            throw new UnauthorizedException("You don't have access to this page");
+        }
+        Boolean pageLive = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pages WHERE id = ? AND archived = false)", Boolean.class, pageId);
+        if (!Boolean.TRUE.equals(pageLive)) {
+            throw new BadRequestException("Page not found");
+        }
+
+        Outline outline = loadOutline(pageId);
+        rejectTakenIds(operations);
+
+        Map<UUID, Node> touched = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BlockOperation op = operations.get(i);
+            String where = "Operation " + i + ": ";
+            switch (op.getOp()) {
+                case CREATE:
+                    touched.put(op.getId(), outline.create(op, where));
+                    break;
+                case UPDATE:
+                    touched.putIfAbsent(op.getId(), outline.update(op, where));
+                    break;
+                case MOVE:
+                    touched.putIfAbsent(op.getId(), outline.move(op, where));
+                    break;
+                case ARCHIVE:
+                    for (Node node : outline.archive(op, where)) {
+                        touched.putIfAbsent(node.id, node);
+                    }
+                    break;
+                default:
+                    throw new BadRequestException(where + "unsupported operation");
+            }
+        }
+
+        write(pageId, userId, outline, touched.values());
+        for (Node node : touched.values()) {
+            if (node.moved) {
+                rankKeyRebalancer.checkKey(RankedTable.BLOCKS, pageId, node.parentId, node.rankKey);
+            }
+        }
+        cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+        List<BlockDto> results = results(pageId, touched.keySet());
+        List<BlockOperationLog.Entry> entries = new ArrayList<>(results.size());
+        for (BlockDto dto : results) {
+            Node node = touched.get(dto.getId());
+            entries.add(node.archived
+                    ? new BlockOperationLog.Entry(dto.getId(), BlockOperationLog.Op.ARCHIVE, null, userId)
+                    : blockOperationLog.state(node.created ? BlockOperationLog.Op.CREATE
+                            : node.moved ? BlockOperationLog.Op.MOVE
+                            : BlockOperationLog.Op.UPDATE, dto, userId));
+        }
+        blockOperationLog.append(pageId, entries);
+        // After logging: staged bodies are logged when they are flushed
+        blockWriteBuffer.overlay(pageId, results);
+        for (BlockDto dto : results) {
+            Node node = touched.get(dto.getId());
+            BlockEvent.Type type = node.created ? BlockEvent.Type.CREATED
+                    : node.archived ? BlockEvent.Type.ARCHIVED
+                    : node.moved ? BlockEvent.Type.MOVED
+                    : BlockEvent.Type.UPDATED;
+            pageEventBroadcaster.blockChanged(pageId, type, dto, userId);
+        }
+        return results;
+    }
+
+    private Outline loadOutline(UUID pageId) {
+        Outline outline = new Outline(pageId);
+        jdbcTemplate.query("SELECT id, parent_id, rank_key, type, content_external, version FROM blocks " +
+                        "WHERE page_id = ? AND archived = false ORDER BY rank_key, id",
+                rs -> {
+                    Node node = new Node(rs.getObject("id", UUID.class));
+                    node.parentId = rs.getObject("parent_id", UUID.class);
+                    node.rankKey = rs.getString("rank_key");
+                    node.type = rs.getString("type");
+                    node.contentExternal = rs.getBoolean("content_external");
+                    node.version = rs.getLong("version");
+                    outline.nodes.put(node.id, node);
+                }, pageId);
+        // Rows arrive in sibling order, so the lists start sorted; a parent outside the set puts its block at the top
+        for (Node node : outline.nodes.values()) {
+            if (node.parentId != null && !outline.nodes.containsKey(node.parentId)) {
+                node.parentId = null;
+            }
+            outline.siblings(node.parentId).add(node);
+        }
+        return outline;
+    }
+
+    // Client-generated ids must be new across all pages, not just this one
+    private void rejectTakenIds(List<BlockOperation> operations) {
+        List<UUID> createIds = operations.stream()
+                .filter(op -> op.getOp() == BlockOperation.Op.CREATE)
+                .map(BlockOperation::getId)
+                .collect(Collectors.toList());
+        if (createIds.isEmpty()) {
+            return;
+        }
+        if (new LinkedHashSet<>(createIds).size() != createIds.size()) {
+            throw new BadRequestException("A block id is created twice in the batch");
+        }
+        List<UUID> taken = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM blocks WHERE id = ANY(?) LIMIT 1");
+            ps.setArray(1, con.createArrayOf("uuid", createIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+        if (!taken.isEmpty()) {
+            throw new BadRequestException("Block id " + taken.get(0) + " already exists");
+        }
+    }
+
+    private void write(UUID pageId, Long userId, Outline outline, Iterable<Node> nodes) {
+        List<Node> inserts = new ArrayList<>();
+        List<Node> updates = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.created) {
+                // Created and archived within the same batch: nothing to keep
+                if (!node.archived) {
+                    inserts.add(node);
+                }
+            } else {
+                updates.add(node);
+            }
+        }
+
+        // Large bodies go to content_blobs first; the rows then only carry the flag
+        for (Node node : inserts) {
+            node.contentExternal = contentStore.writeExternalIfLarge(ContentOwner.BLOCK, node.id, node.content);
+        }
+        for (Node node : updates) {
+            if (node.contentChanged) {
+                // The batch body wins over a staged one; the revision bump keeps a late flush off it
+                blockWriteBuffer.discard(pageId, node.id);
+                boolean wasExternal = node.contentExternal;
+                node.contentExternal = contentStore.writeExternalIfLarge(ContentOwner.BLOCK, node.id, node.content);
+                if (wasExternal && !node.contentExternal) {
+                    contentStore.delete(ContentOwner.BLOCK, node.id);
+                }
+            }
+        }
+
+        // Each batched statement checks its foreign keys on its own, so parents go in first
+        inserts.sort(Comparator.comparingInt(outline::depth));
+        jdbcTemplate.batchUpdate(INSERT, inserts, BATCH_SIZE, (ps, node) -> {
+            boolean external = node.contentExternal;
+            ps.setObject(1, node.id);
+            ps.setString(2, node.type);
+            ps.setString(3, external ? null : node.content);
+            ps.setBoolean(4, external);
+            ps.setObject(5, pageId);
+            setUuid(ps, 6, node.parentId);
+            ps.setString(7, node.rankKey);
+            ps.setLong(8, userId);
+            ps.setLong(9, userId);
+        });
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE, updates, BATCH_SIZE, (ps, node) -> {
+            boolean external = node.contentChanged && node.contentExternal;
+            ps.setString(1, node.type);
+            setUuid(ps, 2, node.parentId);
+            ps.setString(3, node.rankKey);
+            ps.setBoolean(4, node.archived);
+            setUuid(ps, 5, node.archivedWith);
+            ps.setBoolean(6, node.contentChanged);
+            ps.setString(7, external ? null : node.content);
+            ps.setBoolean(8, node.contentChanged);
+            ps.setBoolean(9, external);
+            ps.setBoolean(10, node.contentChanged);
+            ps.setLong(11, userId);
+            ps.setObject(12, node.id);
+            ps.setLong(13, node.version);
+        });
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count == 0) {
+                    throw new ConflictException("A block in the batch was changed by someone else", null);
+                }
+            }
+        }
+    }
+
+    private List<BlockDto> results(UUID pageId, Set<UUID> ids) {
+        Map<UUID, Block> blocks = blockRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Block::getId, block -> block));
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.BLOCK, blocks.values());
+        List<BlockDto> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Block block = blocks.get(id);
+            if (block != null) {
+                BlockDto dto = block.toDto();
+                dto.setContent(contents.get(id));
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    private static void setUuid(PreparedStatement ps, int index, UUID value) throws SQLException {
+        if (value != null) {
+            ps.setObject(index, value);
+        } else {
+            ps.setNull(index, Types.OTHER);
+        }
+    }
+
+    // Live blocks of the page as the batch sees them, with per-parent sibling lists kept in rank order
+    private static final class Outline {
+        private final UUID pageId;
+        private final Map<UUID, Node> nodes = new HashMap<>();
+        private final Map<UUID, List<Node>> siblings = new HashMap<>();
+
+        Outline(UUID pageId) {
+            this.pageId = pageId;
+        }
+
+        Node create(BlockOperation op, String where) {
+            if (op.getType() == null || op.getType().isBlank()) {
+                throw new BadRequestException(where + "type is required");
+            }
+            Node node = new Node(op.getId());
+            node.created = true;
+            node.version = 0L;
+            node.type = op.getType();
+            node.content = op.getContent() != null ? op.getContent() : "";
+            node.contentChanged = true;
+            place(node, liveParent(op.getParentId(), where), op.getPosition());
+            nodes.put(node.id, node);
+            return node;
+        }
+
+        Node update(BlockOperation op, String where) {
+            Node node = live(op.getId(), where);
+            if (op.getVersion() != null && !op.getVersion().equals(node.version)) {
+                throw new ConflictException(where + "block has changed since version " + op.getVersion(), node.version);
+            }
+            if (op.getType() != null) {
+                node.type = op.getType();
+            }
+            if (op.getContent() != null) {
+                node.content = op.getContent();
+                node.contentChanged = true;
+            }
+            return node;
+        }
+
+        Node move(BlockOperation op, String where) {
+            Node node = live(op.getId(), where);
+            UUID parentId = liveParent(op.getParentId(), where);
+            for (UUID ancestor = parentId; ancestor != null; ancestor = nodes.get(ancestor).parentId) {
+                if (ancestor.equals(node.id)) {
+                    throw new BadRequestException(where + "a block can't be moved under itself");
+                }
+            }
+            // Like a single move: staying under the same parent without a position keeps the slot
+            if (op.getPosition() == null && Objects.equals(parentId, node.parentId)) {
+                return node;
+            }
+            siblings(node.parentId).remove(node);
+            place(node, parentId, op.getPosition());
+            return node;
+        }
+
+        List<Node> archive(BlockOperation op, String where) {
+            Node root = live(op.getId(), where);
+            siblings(root.parentId).remove(root);
+            List<Node> archived = new ArrayList<>();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                node.archived = true;
+                node.archivedWith = root.id;
+                nodes.remove(node.id);
+                archived.add(node);
+                List<Node> children = siblings.remove(node.id);
+                if (children != null) {
+                    children.forEach(pending::push);
+                }
+            }
+            return archived;
+        }
+
+        int depth(Node node) {
+            int depth = 0;
+            for (UUID parent = node.parentId; parent != null; parent = nodes.get(parent).parentId) {
+                depth++;
+            }
+            return depth;
+        }
+
+        List<Node> siblings(UUID parentId) {
+            return siblings.computeIfAbsent(parentId != null ? parentId : pageId, k -> new ArrayList<>());
+        }
+
+        // Same slot semantics as a single create or move: index among siblings, or the end
+        private void place(Node node, UUID parentId, Integer position) {
+            List<Node> group = siblings(parentId);
+            node.parentId = parentId;
+            node.rankKey = RankKeys.atIndex(position,
+                    offset -> group.subList(Math.min(offset, group.size()), Math.min(offset + 2, group.size()))
+                            .stream().map(n -> n.rankKey).collect(Collectors.toList()),
+                    () -> group.isEmpty() ? null : group.get(group.size() - 1).rankKey);
+            node.moved = true;
+            int index = 0;
+            while (index < group.size() && SIBLING_ORDER.compare(group.get(index), node) <= 0) {
+                index++;
+            }
+            group.add(index, node);
+        }
+
+        private Node live(UUID id, String where) {
+            Node node = nodes.get(id);
+            if (node == null) {
+                throw new BadRequestException(where + "block " + id + " not found on this page");
+            }
+            return node;
+        }
+
+        private UUID liveParent(UUID parentId, String where) {
+            if (parentId != null && !nodes.containsKey(parentId)) {
+                throw new BadRequestException(where + "parent block " + parentId + " not found on this page");
+            }
+            return parentId;
+        }
+    }
+
+    private static final class Node {
+        private final UUID id;
+        private UUID parentId;
+        private String rankKey;
+        private String type;
+        private String content;
+        private boolean contentChanged;
+        private boolean contentExternal;
+        private boolean created;
+        private boolean moved;
+        private boolean archived;
+        private UUID archivedWith;
+        private Long version;
+
+        Node(UUID id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node && Objects.equals(id, ((Node) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.masai.notionclone.block.service;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
 import com.masai.notionclone.block.dto.BlockDto;
 import com.masai.notionclone.block.dto.CreateBlockRequest;
 import com.masai.notionclone.block.dto.MoveBlockRequest;
@@ -10,10 +11,15 @@ import java.util.UUID;
 
 public interface BlockService {
     List<BlockDto> getBlocksByPage(UUID pageId);
+    // Root blocks with their descendants nested under children
+    List<BlockDto> getBlockTree(UUID pageId);
     BlockDto getBlock(UUID blockId);
     BlockDto createBlock(CreateBlockRequest request);
     BlockDto updateBlock(UUID blockId, UpdateBlockRequest request);
-    void deleteBlock(UUID blockId);
+    // Null when the whole subtree was archived in place, otherwise the job finishing it
+    ArchiveJobDto deleteBlock(UUID blockId);
+    
+    ArchiveJobDto restoreBlock(UUID blockId);
     BlockDto moveBlock(UUID blockId, MoveBlockRequest request);
     List<BlockDto> getChildrenBlocks(UUID parentId);
 }
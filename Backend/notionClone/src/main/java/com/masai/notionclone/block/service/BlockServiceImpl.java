@@ -1,23 +1,41 @@
 package com.masai.notionclone.block.service;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.archive.service.SubtreeArchiver;
 import com.masai.notionclone.block.dto.BlockDto;
 import com.masai.notionclone.block.dto.CreateBlockRequest;
 import com.masai.notionclone.block.dto.MoveBlockRequest;
 import com.masai.notionclone.block.dto.UpdateBlockRequest;
 import com.masai.notionclone.block.model.Block;
 import com.masai.notionclone.block.repository.BlockRepository;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
 import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ConflictException;
 import com.masai.notionclone.exception.UnauthorizedException;
-import com.masai.notionclone.model.User;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+import com.masai.notionclone.ordering.RankKeyRebalancer;
+import com.masai.notionclone.ordering.RankKeyRebalancer.RankedTable;
+import com.masai.notionclone.ordering.RankKeys;
 import com.masai.notionclone.page.model.Page;
 import com.masai.notionclone.page.repository.PageRepository;
+import com.masai.notionclone.realtime.dto.BlockEvent;
+import com.masai.notionclone.realtime.service.PageEventBroadcaster;
 import com.masai.notionclone.service.contextService;
-import com.masai.notionclone.workspace.repository.WorkspaceMemberRepository;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,75 +44,134 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BlockServiceImpl implements BlockService {
 
+    // Stands in for "no row to exclude" in the sibling window queries
+    private static final UUID NO_BLOCK = new UUID(0L, 0L);
+
     private final BlockRepository blockRepository;
     private final PageRepository pageRepository;
-    private final WorkspaceMemberRepository workspaceMemberRepository;
+    private final WorkspaceAccessCache workspaceAccessCache;
     private final contextService contextService;
+    private final RankKeyRebalancer rankKeyRebalancer;
+    private final ContentStore contentStore;
+    private final CacheManager cacheManager;
+    private final SubtreeArchiver subtreeArchiver;
+    private final BlockWriteBuffer blockWriteBuffer;
+    private final PageEventBroadcaster pageEventBroadcaster;
+    private final BlockOperationLog blockOperationLog;
 
     @Override
     @Transactional(readOnly = true)
     public List<BlockDto> getBlocksByPage(UUID pageId) {
-        User currentUser = contextService.getCurrentUser();
-        verifyPageAccess(pageId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        verifyPageAccess(pageId, currentUserId);
         
-        return blockRepository.findByPageIdAndArchivedFalseOrderByPosition(pageId).stream()
-                .map(Block::toDto)
-                .collect(Collectors.toList());
+        // Shared with other readers once cached; callers must not modify the list
+        // Concurrent misses share one load
+        return cacheManager.getCache(CacheConfig.PAGE_BLOCKS).get(pageId, () -> {
+            List<BlockDto> blocks = toDtos(blockRepository.findByPageIdAndArchivedFalseOrderByRankKeyAscIdAsc(pageId));
+            blockWriteBuffer.overlay(pageId, blocks);
+            return blocks;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BlockDto> getBlockTree(UUID pageId) {
+        List<BlockDto> blocks = getBlocksByPage(pageId);
+
+        // Copies, since the flat list is shared through the cache. Blocks arrive in rank order,
+        // so appending in one pass keeps every children list sorted.
+        Map<UUID, BlockDto> byId = new HashMap<>(blocks.size() * 2);
+        for (BlockDto block : blocks) {
+            BlockDto node = new BlockDto();
+            BeanUtils.copyProperties(block, node);
+            byId.put(node.getId(), node);
+        }
+        List<BlockDto> roots = new ArrayList<>();
+        for (BlockDto block : blocks) {
+            BlockDto node = byId.get(block.getId());
+            BlockDto parent = node.getParentId() != null ? byId.get(node.getParentId()) : null;
+            // A parent outside the live set (e.g. archived on its own) leaves the block at the top
+            if (parent == null) {
+                roots.add(node);
+            } else {
+                if (parent.getChildren() == null) {
+                    parent.setChildren(new ArrayList<>());
+                }
+                parent.getChildren().add(node);
+            }
+        }
+        return roots;
     }
 
     @Override
     @Transactional(readOnly = true)
     public BlockDto getBlock(UUID blockId) {
-        User currentUser = contextService.getCurrentUser();
-        Block block = getBlockIfAccessible(blockId, currentUser);
-        return block.toDto();
+        Long currentUserId = contextService.getCurrentUserId();
+        Block block = getBlockIfAccessible(blockId, currentUserId);
+        BlockDto dto = toDto(block);
+        blockWriteBuffer.overlay(block.getPage().getId(), List.of(dto));
+        return dto;
     }
 
     @Override
     @Transactional
     public BlockDto createBlock(CreateBlockRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfAccessible(request.getPageId(), currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = getPageIfAccessible(request.getPageId(), currentUserId);
         
         Block block = new Block();
         block.setType(request.getType());
-        block.setContent(request.getContent());
         block.setPage(page);
-        block.setCreatedBy(currentUser.getId());
+        block.setCreatedBy(currentUserId);
         
         // Handle parent block if specified
         if (request.getParentId() != null) {
             Block parent = blockRepository.findByIdAndArchivedFalse(request.getParentId())
                     .orElseThrow(() -> new BadRequestException("Parent block not found"));
             block.setParent(parent);
-            
-            // Set position for child block
-            Integer maxPosition = blockRepository.findMaxPositionByParentId(request.getParentId());
-            block.setPosition(maxPosition != null ? maxPosition + 1 : 0);
-        } else {
-            // Set position for root block
-            Integer maxPosition = blockRepository.findMaxPositionByPageId(page.getId());
-            block.setPosition(maxPosition != null ? maxPosition + 1 : 0);
-            
-            // Increment positions of blocks after the new position if needed
-            if (request.getPosition() >= 0) {
-                block.setPosition(request.getPosition());
-                blockRepository.incrementPositionsFrom(page.getId(), request.getPosition());
-            }
         }
         
+        // Only the new row is written; siblings keep their keys
+        block.setRankKey(rankKeyAt(page.getId(), request.getParentId(), NO_BLOCK, request.getPosition()));
+        
+        // Insert is deferred to flush, so a large body goes straight to the blob table
         Block savedBlock = blockRepository.save(block);
-        return savedBlock.toDto();
+        contentStore.write(ContentOwner.BLOCK, savedBlock, request.getContent());
+        evictPageBlocks(page.getId());
+        BlockDto dto = savedBlock.toDto();
+        dto.setContent(request.getContent());
+        blockOperationLog.recordState(page.getId(), BlockOperationLog.Op.CREATE, dto, currentUserId);
+        pageEventBroadcaster.blockChanged(page.getId(), BlockEvent.Type.CREATED, dto, currentUserId);
+        return dto;
     }
 
     @Override
     @Transactional
     public BlockDto updateBlock(UUID blockId, UpdateBlockRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Block block = getBlockIfAccessible(blockId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Block block = getBlockIfAccessible(blockId, currentUserId);
+        if (request.getVersion() != null && !request.getVersion().equals(block.getVersion())) {
+            throw new ConflictException("Block has changed since version " + request.getVersion(), block.getVersion());
+        }
+
+        // Autosave path: the body is staged and written in a later batch, which keeps the version as it is
+        if (blockWriteBuffer.accepts(request) && blockWriteBuffer.stage(block, request.getContent(), currentUserId)) {
+            BlockDto dto = block.toDto();
+            dto.setContent(request.getContent());
+            dto.setUpdatedAt(LocalDateTime.now());
+            dto.setUpdatedBy(currentUserId);
+            pageEventBroadcaster.blockChanged(block.getPage().getId(), BlockEvent.Type.UPDATED, dto, currentUserId);
+            return dto;
+        }
         
         if (request.getContent() != null) {
-            block.setContent(request.getContent());
+            blockWriteBuffer.discard(block.getPage().getId(), blockId);
+            // A body staged before this write can no longer be flushed over it
+            block.setContentRevision(block.getContentRevision() + 1);
+            contentStore.write(ContentOwner.BLOCK, block, request.getContent());
+            // Out-of-row bodies leave the row unchanged; touch it so the version still moves
+            block.setUpdatedAt(LocalDateTime.now());
         }
         
         if (request.getType() != null) {
@@ -105,88 +182,154 @@ public class BlockServiceImpl implements BlockService {
             block.setArchived(request.getArchived());
         }
         
-        block.setUpdatedBy(currentUser.getId());
-        Block updatedBlock = blockRepository.save(block);
-        return updatedBlock.toDto();
+        block.setUpdatedBy(currentUserId);
+        Block updatedBlock = blockRepository.saveAndFlush(block);
+        evictPageBlocks(block.getPage().getId());
+        BlockDto dto = toDto(updatedBlock);
+        blockOperationLog.recordState(block.getPage().getId(), BlockOperationLog.Op.UPDATE, dto, currentUserId);
+        pageEventBroadcaster.blockChanged(block.getPage().getId(), BlockEvent.Type.UPDATED, dto, currentUserId);
+        return dto;
     }
 
     @Override
     @Transactional
-    public void deleteBlock(UUID blockId) {
-        User currentUser = contextService.getCurrentUser();
-        Block block = getBlockIfAccessible(blockId, currentUser);
+    public ArchiveJobDto deleteBlock(UUID blockId) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Block block = getBlockIfAccessible(blockId, currentUserId);
         
-        // Soft delete the block
-        blockRepository.softDelete(blockId);
+        // Soft delete the block together with its child blocks
+        ArchiveJobDto job = subtreeArchiver.archiveBlock(block.getPage().getId(), blockId, currentUserId);
+        blockOperationLog.recordSubtree(block.getPage().getId(), BlockOperationLog.Op.ARCHIVE, blockId, currentUserId);
+        pageEventBroadcaster.subtreeChanged(block.getPage().getId(), BlockEvent.Type.ARCHIVED, blockId, currentUserId);
+        return job;
+    }
+
+    @Override
+    @Transactional
+    public ArchiveJobDto restoreBlock(UUID blockId) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Block block = blockRepository.findById(blockId)
+                .orElseThrow(() -> new BadRequestException("Block not found"));
+        Page page = getPageIfAccessible(block.getPage().getId(), currentUserId);
+        if (!block.isArchived()) {
+            throw new BadRequestException("Block is not archived");
+        }
         
-        // Optionally, you might want to recursively delete child blocks
-        // deleteChildBlocks(blockId);
+        ArchiveJobDto job = subtreeArchiver.restoreBlock(page.getId(), blockId, currentUserId);
+        blockOperationLog.recordSubtree(page.getId(), BlockOperationLog.Op.RESTORE, blockId, currentUserId);
+        pageEventBroadcaster.subtreeChanged(page.getId(), BlockEvent.Type.RESTORED, blockId, currentUserId);
+        return job;
     }
 
 
     @Override
     @Transactional
     public BlockDto moveBlock(UUID blockId, MoveBlockRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Block block = getBlockIfAccessible(blockId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Block block = getBlockIfAccessible(blockId, currentUserId);
+        UUID oldParentId = block.getParent() != null ? block.getParent().getId() : null;
         
         // Handle parent change if needed
         if (request.getNewParentId() != null) {
             if (!request.getNewParentId().equals(block.getParent() != null ? block.getParent().getId() : null)) {
                 Block newParent = blockRepository.findByIdAndArchivedFalse(request.getNewParentId())
                         .orElseThrow(() -> new BadRequestException("New parent block not found"));
+                if (blockRepository.isInSubtree(newParent.getId(), blockId)) {
+                    throw new BadRequestException("A block can't be moved under itself or its own descendant");
+                }
                 block.setParent(newParent);
             }
         } else if (block.getParent() != null) {
             // If newParentId is null but block has a parent, make it a root block
             block.setParent(null);
         }
+        boolean parentChanged = !Objects.equals(oldParentId, request.getNewParentId());
         
-        // Handle position change
-        block.setPosition(request.getNewPosition());
+        // Handle position change: a new key between the target neighbours, no sibling shifting
+        UUID parentId = block.getParent() != null ? block.getParent().getId() : null;
+        if (request.getNewPosition() != null || parentChanged) {
+            block.setRankKey(rankKeyAt(block.getPage().getId(), parentId, block.getId(), request.getNewPosition()));
+        }
         
-        // Save the block with new position and parent
-        Block updatedBlock = blockRepository.save(block);
-        return updatedBlock.toDto();
+        // Flushed so the returned, logged and broadcast version is the new one
+        Block updatedBlock = blockRepository.saveAndFlush(block);
+        evictPageBlocks(block.getPage().getId());
+        BlockDto dto = toDto(updatedBlock);
+        blockOperationLog.recordState(block.getPage().getId(), BlockOperationLog.Op.MOVE, dto, currentUserId);
+        pageEventBroadcaster.blockChanged(block.getPage().getId(), BlockEvent.Type.MOVED, dto, currentUserId);
+        return dto;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BlockDto> getChildrenBlocks(UUID parentId) {
-        User currentUser = contextService.getCurrentUser();
-        Block parent = getBlockIfAccessible(parentId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Block parent = getBlockIfAccessible(parentId, currentUserId);
         
-        return blockRepository.findByParentIdAndArchivedFalseOrderByPosition(parentId).stream()
-                .map(Block::toDto)
+        return toDtos(blockRepository.findByParentIdAndArchivedFalseOrderByRankKeyAscIdAsc(parentId));
+    }
+
+    // Transaction-aware cache: applied once the surrounding write commits
+    private void evictPageBlocks(UUID pageId) {
+        cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+    }
+
+    private BlockDto toDto(Block block) {
+        BlockDto dto = block.toDto();
+        dto.setContent(contentStore.read(ContentOwner.BLOCK, block));
+        return dto;
+    }
+
+    // One blob lookup for the whole list instead of one per externally stored block
+    private List<BlockDto> toDtos(List<Block> blocks) {
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.BLOCK, blocks);
+        return blocks.stream()
+                .map(block -> {
+                    BlockDto dto = block.toDto();
+                    dto.setContent(contents.get(block.getId()));
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
     
-    private Block getBlockIfAccessible(UUID blockId, User user) {
+    // Key for slot `index` among the block's siblings (append when null)
+    private String rankKeyAt(UUID pageId, UUID parentId, UUID excludeId, Integer index) {
+        String rankKey = parentId != null
+                ? RankKeys.atIndex(index,
+                        offset -> blockRepository.findChildRankKeyWindow(parentId, excludeId, offset),
+                        () -> blockRepository.findMaxRankKeyByParentId(parentId))
+                : RankKeys.atIndex(index,
+                        offset -> blockRepository.findRootRankKeyWindow(pageId, excludeId, offset),
+                        () -> blockRepository.findMaxRankKeyByPageId(pageId));
+        rankKeyRebalancer.checkKey(RankedTable.BLOCKS, pageId, parentId, rankKey);
+        return rankKey;
+    }
+    
+    private Block getBlockIfAccessible(UUID blockId, Long userId) {
         Block block = blockRepository.findByIdAndArchivedFalse(blockId)
                 .orElseThrow(() -> new BadRequestException("Block not found"));
         
-        verifyPageAccess(block.getPage().getId(), user);
+        verifyPageAccess(block.getPage().getId(), userId);
         return block;
     }
     
-    private Page getPageIfAccessible(UUID pageId, User user) {
+    private Page getPageIfAccessible(UUID pageId, Long userId) {
         Page page = pageRepository.findByIdAndArchivedFalse(pageId)
                 .orElseThrow(() -> new BadRequestException("Page not found"));
         
-        verifyPageAccess(pageId, user);
+        verifyPageAccess(pageId, userId);
         return page;
     }
     
-    private void verifyPageAccess(UUID pageId, User user) {
-        UUID workspaceId = pageRepository.findWorkspaceIdByPageId(pageId);
-        if (workspaceId == null || !workspaceMemberRepository.existsByWorkspaceIdAndUserId(workspaceId, user.getId())) {
+    private void verifyPageAccess(UUID pageId, Long userId) {
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (workspaceId == null || !workspaceAccessCache.isMember(workspaceId, userId)) {
             throw new UnauthorizedException("You don't have access to this page");
         }
     }
     
-    private void verifyPageAccess(Page page, User user) {
-        if (page == null || !workspaceMemberRepository.existsByWorkspaceIdAndUserId(
-                page.getWorkspace().getId(), user.getId())) {
+    private void verifyPageAccess(Page page, Long userId) {
+        if (page == null || !workspaceAccessCache.isMember(page.getWorkspace().getId(), userId)) {
             throw new UnauthorizedException("You don't have access to this page");
         }
     }
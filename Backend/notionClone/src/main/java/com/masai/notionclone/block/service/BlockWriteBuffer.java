@@ -0,0 +1,343 @@
+package com.masai.notionclone.block.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.block.dto.UpdateBlockRequest;
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in write-behind for content-only block updates (blocks.write-behind.enabled).
+ * The latest body of each block is staged in a Redis hash per page, so a newer
+ * update replaces an older one and every node reads the same value; a
+ * scheduler flushes dirty pages to the database in JDBC batches. A staged
+ * value is only removed if it is still the one that was flushed, so an update
+ * arriving mid-flush is kept for the next round.
+ *
+ * Each staged body remembers the block's content revision and is dropped at
+ * flush time if a synchronous body write has bumped it since, so that write
+ * always wins. The revision is separate from the optimistic-lock version:
+ * moves, type changes, archiving and rebalancing bump the version but leave
+ * the body alone, so they never cost a staged autosave. Flushing bumps
+ * neither: staged saves are last-writer-wins among themselves, and an
+ * autosaving client keeps sending the version it was given.
+ *
+ * If Redis can't take a write the caller falls back to a normal synchronous update.
+ */
+@Slf4j
+@Component
+public class BlockWriteBuffer {
+
+    private static final String PAGE_PREFIX = "block-buffer:page:";
+    private static final String DIRTY_PAGES = "block-buffer:dirty";
+
+    private static final RedisScript<Long> DELETE_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then\n" +
+            "  return redis.call('HDEL', KEYS[1], ARGV[1])\n" +
+            "end\n" +
+            "return 0",
+            Long.class);
+
+    // Leaves version and content_revision alone, see the class comment. Archived rows
+    // still take the body, so a restore brings back the last autosave.
+    private static final String FLUSH =
+            "UPDATE blocks SET content = ?, content_external = ?, updated_by = ?, updated_at = ? " +
+            "WHERE id = ? AND content_revision = ?";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentStore contentStore;
+    private final CacheManager cacheManager;
+    private final BlockOperationLog blockOperationLog;
+    private final boolean enabled;
+    private final int pagesPerFlush;
+    // Pages this node staged writes for; flushed first on shutdown
+    private final Set<UUID> localPages = ConcurrentHashMap.newKeySet();
+
+    public BlockWriteBuffer(RedisTemplate<String, String> redisTemplate,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ContentStore contentStore,
+                            CacheManager cacheManager,
+                            BlockOperationLog blockOperationLog,
+                            @Value("${blocks.write-behind.enabled:false}") boolean enabled,
+                            @Value("${blocks.write-behind.pages-per-flush:200}") int pagesPerFlush) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.contentStore = contentStore;
+        this.cacheManager = cacheManager;
+        this.blockOperationLog = blockOperationLog;
+        this.enabled = enabled;
+        this.pagesPerFlush = pagesPerFlush;
+    }
+
+    // Only plain content edits are deferred; anything structural stays synchronous
+    public boolean accepts(UpdateBlockRequest request) {
+        return enabled && request.getContent() != null && request.getType() == null && request.getArchived() == null;
+    }
+
+    /**
+     * Stages the new body. Returns false if it couldn't be staged and the
+     * caller has to write it now.
+     */
+    public boolean stage(Block block, String content, Long userId) {
+        UUID pageId = block.getPage().getId();
+        String value = userId + "|" + System.currentTimeMillis() + "|" + block.getContentRevision() + "|" + content;
+        try {
+            redisTemplate.opsForHash().put(PAGE_PREFIX + pageId, block.getId().toString(), value);
+            redisTemplate.opsForSet().add(DIRTY_PAGES, pageId.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not stage content of block {}, writing through: {}", block.getId(), e.getMessage());
+            return false;
+        }
+        localPages.add(pageId);
+        // The cached list is rebuilt with the staged body on the next read
+        cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+        return true;
+    }
+
+    /**
+     * Drops a staged body that a synchronous write is about to supersede.
+     */
+    public void discard(UUID pageId, UUID blockId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().delete(PAGE_PREFIX + pageId, blockId.toString());
+        } catch (RuntimeException e) {
+            log.warn("Could not discard staged content of block {}: {}", blockId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces bodies in freshly built DTOs with their staged values.
+     */
+    public void overlay(UUID pageId, Collection<BlockDto> blocks) {
+        if (!enabled || blocks.isEmpty()) {
+            return;
+        }
+        Map<Object, Object> staged;
+        try {
+            staged = redisTemplate.opsForHash().entries(PAGE_PREFIX + pageId);
+        } catch (RuntimeException e) {
+            log.warn("Could not read staged block content of page {}: {}", pageId, e.getMessage());
+            return;
+        }
+        if (staged.isEmpty()) {
+            return;
+        }
+        for (BlockDto block : blocks) {
+            Object value = staged.get(block.getId().toString());
+            if (value != null) {
+                Staged parsed = Staged.parse((String) value);
+                block.setContent(parsed.content);
+                block.setUpdatedAt(parsed.updatedAt);
+                block.setUpdatedBy(parsed.userId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blocks.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<String> pages;
+        try {
+            pages = redisTemplate.opsForSet().pop(DIRTY_PAGES, pagesPerFlush);
+        } catch (RuntimeException e) {
+            log.warn("Could not fetch dirty pages to flush: {}", e.getMessage());
+            return;
+        }
+        if (pages != null) {
+            for (String pageId : pages) {
+                flushPage(UUID.fromString(pageId));
+            }
+        }
+    }
+
+    // Staged pages whose flushing node died after taking them off the dirty set
+    @Scheduled(fixedDelayString = "${blocks.write-behind.recovery-interval-ms:60000}")
+    public void requeueOrphans() {
+        if (!enabled) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(PAGE_PREFIX + "*").count(500).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                redisTemplate.opsForSet().add(DIRTY_PAGES, keys.next().substring(PAGE_PREFIX.length()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not scan for staged block content: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        for (UUID pageId : new ArrayList<>(localPages)) {
+            flushPage(pageId);
+        }
+        flush();
+    }
+
+    private void flushPage(UUID pageId) {
+        String key = PAGE_PREFIX + pageId;
+        Map<Object, Object> staged;
+        try {
+            staged = redisTemplate.opsForHash().entries(key);
+        } catch (RuntimeException e) {
+            requeue(pageId);
+            return;
+        }
+        localPages.remove(pageId);
+        if (staged.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(staged.size());
+        List<UUID> inline = new ArrayList<>();
+        List<Staged> flushed = new ArrayList<>(staged.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Locked so no synchronous write can slip in between this check and the update
+                Map<UUID, Long> revisions = new HashMap<>();
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                            "SELECT id, content_revision FROM blocks WHERE id = ANY(?) FOR UPDATE");
+                    ps.setArray(1, con.createArrayOf("uuid", staged.keySet().stream()
+                            .map(id -> UUID.fromString((String) id)).toArray()));
+                    return ps;
+                }, rs -> {
+                    revisions.put(rs.getObject("id", UUID.class), rs.getLong("content_revision"));
+                });
+
+                for (Map.Entry<Object, Object> entry : staged.entrySet()) {
+                    UUID blockId = UUID.fromString((String) entry.getKey());
+                    Staged value = Staged.parse((String) entry.getValue());
+                    // Body rewritten synchronously since it was staged: the newer body stands
+                    if (!Long.valueOf(value.revision).equals(revisions.get(blockId))) {
+                        continue;
+                    }
+                    flushed.add(value);
+                    boolean external = contentStore.writeExternalIfLarge(ContentOwner.BLOCK, blockId, value.content);
+                    if (!external) {
+                        inline.add(blockId);
+                    }
+                    rows.add(new Object[]{external ? null : value.content, external, value.userId,
+                            Timestamp.valueOf(value.updatedAt), blockId, value.revision});
+                }
+                int[] counts = jdbcTemplate.batchUpdate(FLUSH, rows);
+                List<BlockOperationLog.Entry> entries = new ArrayList<>(rows.size());
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        Staged value = flushed.get(i);
+                        entries.add(blockOperationLog.content((UUID) rows.get(i)[4], value.content,
+                                value.userId, value.updatedAt));
+                    }
+                }
+                blockOperationLog.append(pageId, entries);
+                if (!inline.isEmpty()) {
+                    // Bodies that shrank back under the threshold leave their old blob behind otherwise
+                    jdbcTemplate.update(con -> {
+                        PreparedStatement ps = con.prepareStatement(
+                                "DELETE FROM content_blobs WHERE owner_type = ? AND owner_id = ANY(?)");
+                        ps.setString(1, ContentOwner.BLOCK.name());
+                        ps.setArray(2, con.createArrayOf("uuid", inline.toArray()));
+                        return ps;
+                    });
+                }
+                // Cached lists still carry the bodies from before staging
+                cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(pageId);
+            });
+        } catch (RuntimeException e) {
+            log.error("Flushing staged block content of page {} failed", pageId, e);
+            requeue(pageId);
+            return;
+        }
+
+        boolean newer = false;
+        for (Map.Entry<Object, Object> entry : staged.entrySet()) {
+            try {
+                Long removed = redisTemplate.execute(DELETE_IF_UNCHANGED, List.of(key),
+                        entry.getKey(), entry.getValue());
+                newer |= removed == null || removed == 0;
+            } catch (RuntimeException e) {
+                // Left staged; flushing the same value again is harmless
+                newer = true;
+            }
+        }
+        if (newer) {
+            requeue(pageId);
+        }
+    }
+
+    private void requeue(UUID pageId) {
+        try {
+            redisTemplate.opsForSet().add(DIRTY_PAGES, pageId.toString());
+        } catch (RuntimeException e) {
+            // requeueOrphans finds it later
+            log.warn("Could not requeue page {} for flushing: {}", pageId, e.getMessage());
+        }
+    }
+
+    // userId|epochMillis|contentRevision|content
+    private static final class Staged {
+        private final Long userId;
+        private final LocalDateTime updatedAt;
+        private final long revision;
+        private final String content;
+
+        private Staged(Long userId, LocalDateTime updatedAt, long revision, String content) {
+            this.userId = userId;
+            this.updatedAt = updatedAt;
+            this.revision = revision;
+            this.content = content;
+        }
+
+        static Staged parse(String value) {
+            String[] parts = value.split("\\|", 4);
+            return new Staged(Long.valueOf(parts[0]),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[1])), ZoneId.systemDefault()),
+                    Long.parseLong(parts[2]),
+                    parts[3]);
+        }
+    }
+}
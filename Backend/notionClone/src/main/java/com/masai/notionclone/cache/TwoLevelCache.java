@@ -0,0 +1,270 @@
+package com.masai.notionclone.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A size-bounded in-process cache (L1) in front of a shared Redis cache (L2).
+ * Reads fall through L1 -> L2 -> loader and fill the levels above on the way
+ * back. Evictions clear both levels here and are broadcast so other nodes drop
+ * their L1 copy. Redis errors are logged and treated as misses.
+ *
+ * {@link #get(Object, Callable)} coalesces concurrent misses on one node: the
+ * first caller loads, the others wait for its result. For a short window after
+ * an eviction the previous value is kept aside and handed to those callers
+ * instead, so a hot key that was just invalidated costs one load, not a queue.
+ *
+ * Values handed out from L1 are shared between callers and must not be mutated.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    public interface InvalidationPublisher {
+        // key == null means the whole cache was cleared
+        void publish(String cacheName, String key);
+    }
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final InvalidationPublisher publisher;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> stale;
+    private final Duration loadWait;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         InvalidationPublisher publisher,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> stale,
+                         Duration loadWait) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        // Bounded like the local level and expiring after the stale window
+        this.stale = stale;
+        this.loadWait = loadWait;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                remoteHits.increment();
+                local.put(localKey, wrapper.get());
+                return wrapper.get();
+            }
+        } catch (RuntimeException e) {
+            log.warn("L2 read failed for {}::{}: {}", name, key, e.getMessage());
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Read-through with single-flight loading. Runtime exceptions from the
+     * loader reach every caller waiting on it unwrapped, so e.g. a "not found"
+     * keeps its status code.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        String localKey = localKey(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, flight);
+        if (leader != null) {
+            Object previous = stale.getIfPresent(localKey);
+            if (previous != null) {
+                staleServed.increment();
+                return (T) previous;
+            }
+            coalesced.increment();
+            return (T) await(key, leader, valueLoader);
+        }
+
+        try {
+            T loaded = call(key, valueLoader);
+            flight.complete(loaded);
+            // An eviction during the load drops the flight; its result is then too old to cache
+            if (inFlight.remove(localKey, flight)) {
+                put(key, loaded);
+                stale.invalidate(localKey);
+            }
+            return loaded;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            inFlight.remove(localKey, flight);
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        local.put(localKey(key), value);
+        puts.increment();
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("L2 write failed for {}::{}: {}", name, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        retire(localKey);
+        evictions.increment();
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            // Other nodes' L2 reads may still see the entry until its TTL runs out
+            log.warn("L2 evict failed for {}::{}: {}", name, key, e.getMessage());
+        }
+        publisher.publish(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        retireAll();
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            log.warn("L2 clear failed for {}: {}", name, e.getMessage());
+        }
+        publisher.publish(name, null);
+    }
+
+    // Applies an invalidation received from another node
+    void evictLocal(String key) {
+        if (key == null) {
+            retireAll();
+        } else {
+            retire(key);
+        }
+    }
+
+    // Keeps the evicted value for the stale window and detaches any load that started before the eviction
+    private void retire(String localKey) {
+        Object previous = local.asMap().remove(localKey);
+        if (previous != null) {
+            stale.put(localKey, previous);
+        }
+        inFlight.remove(localKey);
+    }
+
+    private void retireAll() {
+        stale.putAll(local.asMap());
+        local.invalidateAll();
+        inFlight.clear();
+    }
+
+    private Object await(Object key, CompletableFuture<Object> leader, Callable<?> valueLoader) {
+        try {
+            return leader.get(loadWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            // A stuck leader shouldn't hold every waiter hostage
+            log.warn("Load of {}::{} still running after {} ms, loading separately", name, key, loadWait.toMillis());
+            return call(key, valueLoader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private static <T> T call(Object key, Callable<T> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    long getLocalHits() {
+        return localHits.sum();
+    }
+
+    long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getPuts() {
+        return puts.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    long getStaleServed() {
+        return staleServed.sum();
+    }
+
+    // Redis keys are strings anyway; using the same form locally lets remote invalidations match
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
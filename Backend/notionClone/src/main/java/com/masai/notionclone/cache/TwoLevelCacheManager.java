@@ -0,0 +1,143 @@
+package com.masai.notionclone.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds a {@link TwoLevelCache} per declared cache name and relays evictions
+ * between nodes over Redis pub/sub. Caches are transaction aware: puts and
+ * evictions issued inside a transaction are applied after it commits.
+ */
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    static final String CHANNEL = "cache-invalidation";
+
+    private final List<LocalSpec> specs;
+    private final RedisCacheManager remoteManager;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration staleWindow;
+    private final Duration loadWait;
+    // Lets a node skip its own broadcasts; it has already evicted locally
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public TwoLevelCacheManager(List<LocalSpec> specs,
+                                RedisCacheManager remoteManager,
+                                RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                Duration staleWindow,
+                                Duration loadWait) {
+        this.specs = specs;
+        this.remoteManager = remoteManager;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.staleWindow = staleWindow;
+        this.loadWait = loadWait;
+        setTransactionAware(true);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        remoteManager.initializeCaches();
+        List<Cache> caches = new ArrayList<>(specs.size());
+        for (LocalSpec spec : specs) {
+            caches.add(new TwoLevelCache(spec.name,
+                    newLocal(spec, spec.ttl),
+                    remoteManager.getCache(spec.name),
+                    this::publish,
+                    newLocal(spec, staleWindow),
+                    loadWait));
+        }
+        return caches;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        Cache cache = lookupCache(parts[1]);
+        if (cache instanceof TwoLevelCache) {
+            ((TwoLevelCache) cache).evictLocal("*".equals(parts[2]) ? null : parts[2]);
+        }
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<String, Object> newLocal(LocalSpec spec, Duration ttl) {
+        if (spec.weigher != null) {
+            return Caffeine.newBuilder()
+                    .maximumWeight(spec.maxWeight)
+                    .weigher(spec.weigher)
+                    .expireAfterWrite(ttl)
+                    .build();
+        }
+        return Caffeine.newBuilder()
+                .maximumSize(spec.maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private void publish(String cacheName, String key) {
+        String message = nodeId + "|" + cacheName + "|" + (key != null ? key : "*");
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (RuntimeException e) {
+            // Remote L1 copies expire on their own TTL
+            log.warn("Failed to broadcast cache invalidation {}: {}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * L1 bounds for one cache, either an entry count or a total weight. The
+     * L2 TTL is configured on the Redis cache manager.
+     */
+    public static final class LocalSpec {
+        private final String name;
+        private final long maxSize;
+        private final long maxWeight;
+        private final Weigher<String, Object> weigher;
+        private final Duration ttl;
+
+        public LocalSpec(String name, long maxSize, Duration ttl) {
+            this(name, maxSize, 0, null, ttl);
+        }
+
+        public LocalSpec(String name, long maxWeight, Weigher<String, Object> weigher, Duration ttl) {
+            this(name, 0, maxWeight, weigher, ttl);
+        }
+
+        private LocalSpec(String name, long maxSize, long maxWeight, Weigher<String, Object> weigher, Duration ttl) {
+            this.name = name;
+            this.maxSize = maxSize;
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            this.ttl = ttl;
+        }
+    }
+}
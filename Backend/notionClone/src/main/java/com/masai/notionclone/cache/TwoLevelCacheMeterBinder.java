@@ -0,0 +1,73 @@
+package com.masai.notionclone.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Standard cache.gets/puts/evictions meters for a {@link TwoLevelCache}, plus
+ * hits split by level so the L1 hit ratio can be watched on its own.
+ */
+public class TwoLevelCacheMeterBinder extends CacheMeterBinder<TwoLevelCache> {
+
+    private final TwoLevelCache cache;
+
+    public TwoLevelCacheMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return cache.getLocalSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.getLocalHits() + cache.getRemoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.level.hits", cache, TwoLevelCache::getLocalHits)
+                .tags(getTagsWithCacheName())
+                .tag("level", "l1")
+                .description("Hits served from the in-process cache")
+                .register(registry);
+        FunctionCounter.builder("cache.level.hits", cache, TwoLevelCache::getRemoteHits)
+                .tags(getTagsWithCacheName())
+                .tag("level", "l2")
+                .description("Hits served from Redis after an in-process miss")
+                .register(registry);
+        FunctionCounter.builder("cache.coalesced", cache, TwoLevelCache::getCoalesced)
+                .tags(getTagsWithCacheName())
+                .tag("result", "waited")
+                .description("Misses that waited for a load already in flight")
+                .register(registry);
+        FunctionCounter.builder("cache.coalesced", cache, TwoLevelCache::getStaleServed)
+                .tags(getTagsWithCacheName())
+                .tag("result", "stale")
+                .description("Misses answered with the just-evicted value while it reloads")
+                .register(registry);
+        Gauge.builder("cache.local.size", cache, TwoLevelCache::getLocalSize)
+                .tags(getTagsWithCacheName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.masai.notionclone.config;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.masai.notionclone.enums.Role;
+
+import lombok.Getter;
+
+/**
+ * Principal built straight from the verified JWT claims, so an authenticated
+ * request never has to hit the users table just to know who is calling.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Long id;
+	private final String email;
+	private final Role role;
+
+	public AuthenticatedUser(Long id, String email, Role role) {
+		this.id = id;
+		this.email = email;
+		this.role = role;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return List.of(new SimpleGrantedAuthority(role.name()));
+	}
+
+	@Override
+	public String getPassword() {
+		return null;
+	}
+
+	@Override
+	public String getUsername() {
+		return email;
+	}
+
+	@Override
+	public boolean isAccountNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isAccountNonLocked() {
+		return true;
+	}
+
+	@Override
+	public boolean isCredentialsNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+}
@@ -1,5 +1,18 @@
 package com.masai.notionclone.config;
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.cache.TwoLevelCache;
+import com.masai.notionclone.cache.TwoLevelCacheManager;
+import com.masai.notionclone.cache.TwoLevelCacheManager.LocalSpec;
+import com.masai.notionclone.cache.TwoLevelCacheMeterBinder;
+import com.masai.notionclone.page.dto.PageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -7,27 +20,122 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    // Page DTO without per-user fields, keyed by page id
+    public static final String PAGES = "pages";
+    // Ordered live blocks of a page, keyed by page id
+    public static final String PAGE_BLOCKS = "page-blocks";
+    // Workspace DTO, keyed by workspace id
+    public static final String WORKSPACES = "workspaces";
+
+    @Value("${cache.remote-ttl-minutes:10}")
+    private long remoteTtlMinutes;
+
+    @Value("${cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    // Pages and block lists carry whole bodies, so their L1 is bounded by size rather than entry count
+    @Value("${cache.local.pages-max-mb:64}")
+    private long pagesMaxMb;
+
+    @Value("${cache.local.page-blocks-max-mb:128}")
+    private long pageBlocksMaxMb;
+
+    // Short enough to bound staleness if an invalidation broadcast is lost
+    @Value("${cache.local.ttl-seconds:60}")
+    private long localTtlSeconds;
+
+    @Value("${cache.local.workspace-ttl-seconds:300}")
+    private long workspaceTtlSeconds;
+
+    // How long an evicted value may still answer readers while one of them reloads it
+    @Value("${cache.stale-window-ms:2000}")
+    private long staleWindowMs;
+
+    @Value("${cache.load-wait-ms:5000}")
+    private long loadWaitMs;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))  // Set TTL to 10 minutes (optional)
-                .serializeValuesWith(              // this is also optional, but you not mention than implement serializable with every entity that is gonna store in redis 
+                .entryTtl(Duration.ofMinutes(remoteTtlMinutes))
+                .serializeValuesWith(              // this is also optional, but you not mention than implement serializable with every entity that is gonna store in redis
                         RedisSerializationContext.SerializationPair.fromSerializer(
-                            new GenericJackson2JsonRedisSerializer()
+                            new GenericJackson2JsonRedisSerializer(cacheObjectMapper())
                         )
                  )
                 .disableCachingNullValues();       // Optionally disable caching null values
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager remoteManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfig)
+                .withInitialCacheConfigurations(Map.of(
+                        PAGES, cacheConfig,
+                        PAGE_BLOCKS, cacheConfig,
+                        WORKSPACES, cacheConfig.entryTtl(Duration.ofMinutes(remoteTtlMinutes * 3))))
+                .build();
+
+        List<LocalSpec> localSpecs = List.of(
+                new LocalSpec(PAGES, pagesMaxMb << 20, CacheConfig::weigh, Duration.ofSeconds(localTtlSeconds)),
+                new LocalSpec(PAGE_BLOCKS, pageBlocksMaxMb << 20, CacheConfig::weigh, Duration.ofSeconds(localTtlSeconds)),
+                new LocalSpec(WORKSPACES, localMaxSize, Duration.ofSeconds(workspaceTtlSeconds)));
+
+        return new TwoLevelCacheManager(localSpecs, remoteManager, redisTemplate, redisMessageListenerContainer,
+                Duration.ofMillis(staleWindowMs), Duration.ofMillis(loadWaitMs));
+    }
+
+    // Picked up by the actuator so the caches show up under /actuator/metrics/cache.*
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return TwoLevelCacheMeterBinder::new;
+    }
+
+    // Rough heap bytes: a fixed allowance per object plus two bytes per char of the free-text fields
+    private static int weigh(String key, Object value) {
+        long bytes;
+        if (value instanceof PageDto) {
+            PageDto page = (PageDto) value;
+            bytes = 512 + 2L * (length(page.getTitle()) + length(page.getContent()));
+        } else if (value instanceof List) {
+            bytes = 64;
+            for (Object item : (List<?>) value) {
+                bytes += item instanceof BlockDto ? 384 + 2L * length(((BlockDto) item).getContent()) : 384;
+            }
+        } else {
+            bytes = 512;
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    // DTOs carry java.time fields, which the serializer's default mapper can't write.
+    // Type ids read back from Redis are limited to our own classes and JDK collections/time,
+    // so whoever can write to Redis can't name an arbitrary gadget class.
+    private static ObjectMapper cacheObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        BasicPolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.masai.notionclone.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
                 .build();
+        mapper.activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return mapper;
     }
 }
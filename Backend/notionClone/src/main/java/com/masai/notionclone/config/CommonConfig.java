@@ -2,8 +2,10 @@ package com.masai.notionclone.config;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
@@ -16,6 +18,8 @@ public class CommonConfig {
 	    return new RestTemplate();
 	}
 	
+	// Primary so @Async keeps resolving to this pool now that other executors exist
+	@Primary
 	@Bean(name = "customExecutor")
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -26,4 +30,19 @@ public class CommonConfig {
         executor.initialize();
         return executor;
     }
+
+	// Keeps BCrypt off the Tomcat workers; a full queue rejects instead of stalling the request
+	@Bean(name = "passwordHashExecutor")
+	public ThreadPoolTaskExecutor passwordHashExecutor(
+			@Value("${security.password-hash.threads:0}") int threads,
+			@Value("${security.password-hash.queue-capacity:64}") int queueCapacity) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("PasswordHasher-");
+		executor.initialize();
+		return executor;
+	}
 }
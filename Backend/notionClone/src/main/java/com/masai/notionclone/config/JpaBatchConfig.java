@@ -0,0 +1,25 @@
+package com.masai.notionclone.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Hibernate send inserts and updates of one entity type as JDBC batches.
+ * Ordering groups statements by entity so a flush of mixed pages and blocks
+ * still batches; versioned updates are safe to batch on the Postgres driver.
+ */
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", batchSize);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+            properties.put("hibernate.jdbc.batch_versioned_data", true);
+        };
+    }
+}
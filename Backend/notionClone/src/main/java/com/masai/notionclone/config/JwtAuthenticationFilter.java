@@ -5,6 +5,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,8 +13,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.masai.notionclone.service.TokenRevocationService;
 import com.masai.notionclone.service.UserDetailServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 import java.io.IOException;
 
 @Component
@@ -25,6 +29,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailServiceImpl userDetailsService; // Custom class that loads user by username
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // When enabled, the principal comes from the signed claims instead of a users lookup
+    @Value("${jwt.stateless-claims:true}")
+    private boolean statelessClaims;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
@@ -33,12 +44,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = authHeader.substring(7);
 
             try {
-                String username = jwtUtil.extractUsername(jwt);
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UserDetails userDetails = resolveUserDetails(jwt);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
+                    if (userDetails != null) {
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
 
@@ -52,4 +61,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Also used for STOMP CONNECT frames, which carry the token in a native header
+    public UserDetails resolveUserDetails(String jwt) {
+        // Single parse per request: signature and expiry are checked here (or served from the verified cache)
+        Claims claims = jwtUtil.extractAllClaims(jwt);
+
+        // Bloom filter answers locally for almost every token; Redis is only asked on a "maybe"
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        if (statelessClaims) {
+            AuthenticatedUser principal = jwtUtil.extractPrincipal(claims);
+            if (principal != null) {
+                return principal;
+            }
+        }
+
+        // Legacy tokens (no id/role claims) or stateless mode switched off
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return jwtUtil.validateClaims(claims, userDetails) ? userDetails : null;
+    }
 }
@@ -2,53 +2,72 @@ package com.masai.notionclone.config;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import java.util.Date;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.masai.notionclone.enums.Role;
+import com.masai.notionclone.model.User;
+
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
-    @Value("${jwt.expiration}")
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    // Access tokens are short-lived; long sessions go through refresh tokens
+    @Value("${jwt.access-expiration:900000}")
     private long expirationTime;
 
-    // Generate token with expiration
-    public String generateToken(String username) {
+    // Generate token with expiration, carrying the claims the filter needs to skip the user lookup
+    public String generateToken(User user) {
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + expirationTime);
 
         return Jwts.builder()
-                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
                 .setIssuedAt(now)
                 .setExpiration(expirationDate)  // Set expiration time
-                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes()))
+                .signWith(jwtVerifier.getSigningKey())
                 .compact();
     }
 
+    // Verified (signature + expiry) claims; parse once per request and reuse the result
+    public Claims extractAllClaims(String token) {
+        return jwtVerifier.verify(token);
+    }
+
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
     }
-    
+
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateClaims(extractAllClaims(token), userDetails);
     }
-    
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+
+    public boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
-    private Claims extractAllClaims(String token) {
-		return Jwts
-            .parserBuilder()
-            .setSigningKey(Keys.hmacShaKeyFor(secretKey.getBytes()))
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
-	}
-}
\ No newline at end of file
+    /**
+     * Builds the principal from verified claims. Returns null for tokens issued
+     * before the id/role claims existed, so the caller can fall back to a lookup.
+     */
+    public AuthenticatedUser extractPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), Role.valueOf(role));
+    }
+}
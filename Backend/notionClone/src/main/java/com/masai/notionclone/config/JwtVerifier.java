@@ -0,0 +1,104 @@
+package com.masai.notionclone.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Verifies JWTs with a signing key and parser built once at startup, and keeps
+ * a bounded cache of recently verified tokens (keyed by SHA-256 digest) so a
+ * hot client only pays for HMAC verification and JSON parsing once per token.
+ * Cached entries never outlive the token's own expiry.
+ */
+@Component
+public class JwtVerifier {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtVerifier(@Value("${jwt.secret}") String secretKey,
+                       @Value("${jwt.verified-cache.max-size:50000}") long maxSize,
+                       @Value("${jwt.verified-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+        long maxTtlNanos = Duration.ofSeconds(maxTtlSeconds).toNanos();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return maxTtlNanos;
+                        }
+                        long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Returns the verified claims, parsing and checking the signature only on a
+     * cache miss. Throws the usual jjwt exceptions for invalid or expired tokens.
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            // Cache expiry tracks the token's exp, but never trust a stale entry
+            if (claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+                verifiedTokens.invalidate(digest);
+                throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+            }
+            return claims;
+        }
+
+        claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
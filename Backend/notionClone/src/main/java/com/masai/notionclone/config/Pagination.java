@@ -0,0 +1,24 @@
+package com.masai.notionclone.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page size limits shared by the keyset-paginated listings.
+ */
+@Component
+public class Pagination {
+
+    @Value("${pagination.default-size:50}")
+    private int defaultSize;
+
+    @Value("${pagination.max-size:200}")
+    private int maxSize;
+
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,116 @@
+package com.masai.notionclone.config;
+
+import java.util.UUID;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.masai.notionclone.model.User;
+import com.masai.notionclone.realtime.service.PageEventBroadcaster;
+import com.masai.notionclone.repository.UserRepository;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Browsers can't put headers on the WebSocket upgrade, so the bearer token
+ * comes with the STOMP CONNECT frame instead and the session principal is set
+ * here. Nothing but CONNECT gets through without it, clients can only send
+ * to application destinations, and page topics are only joinable by members
+ * of the page's workspace.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final UserRepository userRepository;
+    private final WorkspaceAccessCache workspaceAccessCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+            return message;
+        }
+        if (userId(accessor) == null) {
+            throw new MessageDeliveryException("Not authenticated");
+        }
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            checkSubscription(accessor);
+        } else if (accessor.getCommand() == StompCommand.SEND) {
+            // The broker would relay anything else straight to subscribers, e.g. forged page events
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith("/app/")) {
+                throw new MessageDeliveryException("Clients may only send to /app destinations");
+            }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new MessageDeliveryException("Missing bearer token");
+        }
+        UserDetails userDetails;
+        try {
+            userDetails = jwtAuthenticationFilter.resolveUserDetails(header.substring(7));
+        } catch (RuntimeException e) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        if (userDetails == null) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        // Legacy tokens resolve to a loaded user; sessions always carry the id-bearing principal
+        if (!(userDetails instanceof AuthenticatedUser)) {
+            User user = userRepository.findByEmail(userDetails.getUsername())
+                    .orElseThrow(() -> new MessageDeliveryException("Invalid token"));
+            userDetails = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private void checkSubscription(StompHeaderAccessor accessor) {
+        Long userId = userId(accessor);
+        String destination = accessor.getDestination();
+        if (userId == null || destination == null) {
+            throw new MessageDeliveryException("Not authenticated");
+        }
+        if (destination.startsWith("/user/")) {
+            return;
+        }
+        if (!destination.startsWith(PageEventBroadcaster.TOPIC_PREFIX)) {
+            throw new MessageDeliveryException("Unknown destination " + destination);
+        }
+        UUID pageId;
+        try {
+            pageId = UUID.fromString(destination.substring(PageEventBroadcaster.TOPIC_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new MessageDeliveryException("Unknown destination " + destination);
+        }
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (workspaceId == null || !workspaceAccessCache.isMember(workspaceId, userId)) {
+            throw new MessageDeliveryException("You don't have access to this page");
+        }
+    }
+
+    private static Long userId(StompHeaderAccessor accessor) {
+        return accessor.getUser() instanceof Authentication
+                && ((Authentication) accessor.getUser()).getPrincipal() instanceof AuthenticatedUser
+                ? ((AuthenticatedUser) ((Authentication) accessor.getUser()).getPrincipal()).getId()
+                : null;
+    }
+}
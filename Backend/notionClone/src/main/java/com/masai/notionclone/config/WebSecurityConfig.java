@@ -3,6 +3,7 @@ package com.masai.notionclone.config;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -35,10 +36,13 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     private JwtUtil jwtUtil;
 
 
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     // Create BCryptPasswordEncoder bean
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Override
@@ -50,13 +54,16 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                     "/api/users/register/**",
                     "/api/users/forgot-password/**",
                     "/api/users/login",               
+                    "/api/users/token/refresh",
+                    "/api/users/logout",
                     "/swagger-ui/**",
                     "/v3/api-docs/swagger-config",
                     "/v3/api-docs",
                     "/actuator/**",
                     "/public/**",
                     "/api/auth/**",
-                    "/api/workspaces/**"
+                    "/api/workspaces/**",
+                    "/ws/**"                          // authenticated on STOMP CONNECT
                 ).permitAll()
             .antMatchers(HttpMethod.PUT, "/api/users/profile").hasAnyAuthority("CUSTOMER")
             .antMatchers(HttpMethod.GET, "/api/users/profile").hasAnyAuthority("CUSTOMER")
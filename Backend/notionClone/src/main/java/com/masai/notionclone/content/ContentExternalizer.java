@@ -0,0 +1,75 @@
+package com.masai.notionclone.content;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background migration that moves existing over-threshold bodies out of the
+ * pages and blocks rows, one locked batch at a time. New writes already go
+ * through ContentStore, so once a pass finds nothing left the job goes quiet
+ * until the next restart.
+ */
+@Slf4j
+@Component
+public class ContentExternalizer {
+
+    private final ContentStore contentStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private volatile boolean done;
+
+    public ContentExternalizer(ContentStore contentStore,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${content.migration.batch-size:100}") int batchSize) {
+        this.contentStore = contentStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${content.migration.initial-delay-ms:60000}",
+               fixedDelayString = "${content.migration.interval-ms:10000}")
+    public void externalizePending() {
+        if (done) {
+            return;
+        }
+        try {
+            int moved = moveBatch(ContentOwner.PAGE) + moveBatch(ContentOwner.BLOCK);
+            if (moved == 0) {
+                done = true;
+                log.info("Content externalization finished");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Content externalization batch failed: {}", e.getMessage());
+        }
+    }
+
+    private int moveBatch(ContentOwner owner) {
+        Integer moved = transactionTemplate.execute(status -> {
+            // SKIP LOCKED lets several nodes share the work and never blocks user writes
+            List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM " + owner.getTable() +
+                    " WHERE content_external = false AND octet_length(content) > ? LIMIT ? FOR UPDATE SKIP LOCKED",
+                    UUID.class, contentStore.getThresholdBytes(), batchSize);
+            for (UUID id : ids) {
+                String content = jdbcTemplate.queryForObject(
+                        "SELECT content FROM " + owner.getTable() + " WHERE id = ?", String.class, id);
+                contentStore.upsert(owner, id, content.getBytes(StandardCharsets.UTF_8));
+                jdbcTemplate.update("UPDATE " + owner.getTable() +
+                        " SET content = NULL, content_external = true WHERE id = ?", id);
+            }
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.masai.notionclone.content;
+
+// Which table an out-of-row content blob belongs to
+public enum ContentOwner {
+    PAGE("pages"),
+    BLOCK("blocks");
+
+    private final String table;
+
+    ContentOwner(String table) {
+        this.table = table;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,14 @@
+package com.masai.notionclone.content;
+
+import lombok.Data;
+
+/**
+ * One step of a {@link TextDelta}; exactly one field is set. Lengths count
+ * UTF-16 code units, the same as JavaScript string lengths.
+ */
+@Data
+public class DeltaOp {
+    private Integer retain;
+    private Integer delete;
+    private String insert;
+}
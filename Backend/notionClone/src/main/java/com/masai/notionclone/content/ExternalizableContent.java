@@ -0,0 +1,20 @@
+package com.masai.notionclone.content;
+
+import java.util.UUID;
+
+/**
+ * Entity whose content column holds the body inline when it is small and is
+ * null when the body lives compressed in content_blobs.
+ */
+public interface ExternalizableContent {
+
+    UUID getId();
+
+    String getContent();
+
+    void setContent(String content);
+
+    boolean isContentExternal();
+
+    void setContentExternal(boolean contentExternal);
+}
@@ -0,0 +1,45 @@
+package com.masai.notionclone.content;
+
+import java.util.List;
+
+import com.masai.notionclone.exception.BadRequestException;
+
+/**
+ * Applies a retain/delete/insert delta to a text. Ops walk the base text from
+ * the start; whatever is left after the last op is kept, so an edit near the
+ * top of a large document is a couple of ops, not the whole body.
+ */
+public final class TextDelta {
+
+    private TextDelta() {
+    }
+
+    public static String apply(String base, List<DeltaOp> ops) {
+        String text = base != null ? base : "";
+        StringBuilder out = new StringBuilder(text.length() + 64);
+        int cursor = 0;
+        for (DeltaOp op : ops) {
+            if (op == null) {
+                throw new BadRequestException("Delta op must not be null");
+            }
+            int set = (op.getRetain() != null ? 1 : 0) + (op.getDelete() != null ? 1 : 0) + (op.getInsert() != null ? 1 : 0);
+            if (set != 1) {
+                throw new BadRequestException("Each delta op must have exactly one of retain, delete or insert");
+            }
+            if (op.getInsert() != null) {
+                out.append(op.getInsert());
+                continue;
+            }
+            int length = op.getRetain() != null ? op.getRetain() : op.getDelete();
+            if (length < 0 || length > text.length() - cursor) {
+                throw new BadRequestException("Delta op runs past the end of the base content");
+            }
+            if (op.getRetain() != null) {
+                out.append(text, cursor, cursor + length);
+            }
+            cursor += length;
+        }
+        out.append(text, cursor, text.length());
+        return out.toString();
+    }
+}
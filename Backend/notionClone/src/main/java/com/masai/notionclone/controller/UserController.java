@@ -1,16 +1,18 @@
 package com.masai.notionclone.controller;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,14 +20,28 @@ import org.springframework.web.bind.annotation.RestController;
 import com.masai.notionclone.config.JwtUtil;
 import com.masai.notionclone.dto.AuthenticationResponse;
 import com.masai.notionclone.dto.MessageResponse;
+import com.masai.notionclone.dto.RefreshTokenRequest;
 import com.masai.notionclone.dto.UserDto;
 import com.masai.notionclone.exception.InvalidCredentialsException;
+import com.masai.notionclone.exception.ServiceUnavailableException;
+import com.masai.notionclone.exception.UnauthorizedException;
 import com.masai.notionclone.model.User;
+import com.masai.notionclone.ratelimit.RateLimit;
+import com.masai.notionclone.ratelimit.RateLimitScope;
+import com.masai.notionclone.ratelimit.RateLimiter;
 import com.masai.notionclone.repository.UserRepository;
 import com.masai.notionclone.service.OtpService;
+import com.masai.notionclone.service.PasswordHashingService;
+import com.masai.notionclone.service.RefreshTokenService;
+import com.masai.notionclone.service.RefreshTokenService.RotatedToken;
+import com.masai.notionclone.service.TokenRevocationService;
+import com.masai.notionclone.service.UserCache;
 import com.masai.notionclone.service.UserService;
 import com.masai.notionclone.service.contextService;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
@@ -40,7 +56,7 @@ public class UserController {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private ApplicationEventPublisher publisher;
@@ -50,7 +66,26 @@ public class UserController {
     
     @Autowired
     private contextService contextService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${ratelimit.login-failures.capacity:10}")
+    private int loginFailureCapacity;
+
+    @Value("${ratelimit.login-failures.period-seconds:300}")
+    private long loginFailurePeriodSeconds;
     
+    @RateLimit(name = "register", capacity = 5, refillTokens = 5, refillPeriodSeconds = 600)
     @PostMapping("/register/request-otp")
     public ResponseEntity<?> requestOtp(@Valid @RequestBody UserDto userDTO) {
         if (userService.findByEmail(userDTO.getEmail()).isPresent()) {
@@ -61,6 +96,7 @@ public class UserController {
         return ResponseEntity.ok(new MessageResponse("Welcome! You’ve Signed up successfully."));
     }
 
+    @RateLimit(name = "register", capacity = 5, refillTokens = 5, refillPeriodSeconds = 600)
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody UserDto userDTO) {
 //    	if (!otpService.validateOtp(userDTO.getEmail(), otp)) {
@@ -74,6 +110,8 @@ public class UserController {
         return ResponseEntity.ok(new MessageResponse("Welcome! You’ve logged in successfully."));
     }
     
+    @RateLimit(name = "forgot-password", capacity = 5, refillTokens = 5, refillPeriodSeconds = 600)
+    @RateLimit(name = "forgot-password", scope = RateLimitScope.EMAIL, capacity = 3, refillTokens = 3, refillPeriodSeconds = 600)
     @PostMapping("/forgot-password/request-otp")
     public ResponseEntity<?> requestPasswordResetOtp(@RequestParam("email") String email) {
         return userService.findByEmail(email)
@@ -84,6 +122,8 @@ public class UserController {
                 .orElse(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse("User not found")));
     }
 
+    @RateLimit(name = "password-reset", capacity = 10, refillTokens = 10, refillPeriodSeconds = 600)
+    @RateLimit(name = "password-reset", scope = RateLimitScope.EMAIL, capacity = 5, refillTokens = 5, refillPeriodSeconds = 600)
     @PostMapping("/forgot-password/reset")
     public ResponseEntity<?> resetPassword(@RequestParam("email") String email, @RequestParam("otp") String otp, @RequestParam("newPassword") String newPassword) {
         if (!otpService.validateOtp(email, otp)) {
@@ -92,29 +132,83 @@ public class UserController {
 
         return userService.findByEmail(email)
                 .map(user -> {
-                    user.setPassword(passwordEncoder.encode(newPassword));
+                    user.setPassword(passwordHashingService.hash(newPassword));
                     userRepository.save(user);
+                    userCache.evict(user.getId());
+                    refreshTokenService.revokeAllForUser(user.getId());
                     return ResponseEntity.ok(new MessageResponse("Password reset successful"));
                 })
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(new MessageResponse("User not found")));
     }
 
+    @RateLimit(name = "login", capacity = 10, refillTokens = 10, refillPeriodSeconds = 60)
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody UserDto userDTO) {
-        User user = userService.findByEmail(userDTO.getEmail())
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
-
-        if (!passwordEncoder.matches(userDTO.getPassword(), user.getPassword())) {
+    public ResponseEntity<?> loginUser(@RequestBody UserDto userDTO, HttpServletRequest request) {
+        // Only failures are charged, per account and client address, so nobody else can lock an owner out
+        String failures = userDTO.getEmail() != null
+                ? "login-failures:" + rateLimiter.clientIp(request) + ":" + userDTO.getEmail().trim().toLowerCase()
+                : null;
+        if (failures != null) {
+            rateLimiter.check(failures, loginFailureCapacity, loginFailureCapacity, loginFailurePeriodSeconds);
+        }
+        User user = userService.findByEmail(userDTO.getEmail()).orElse(null);
+        if (user == null || !passwordHashingService.matches(userDTO.getPassword(), user.getPassword())) {
+            if (failures != null) {
+                rateLimiter.consume(failures, loginFailureCapacity, loginFailureCapacity, loginFailurePeriodSeconds);
+            }
             throw new InvalidCredentialsException("Invalid credentials");
         }
 
-        String token = jwtUtil.generateToken(user.getEmail());
-        return ResponseEntity.ok(new MessageResponse("Welcome! You’ve logged in successfully.", AuthenticationResponse.mapToResponse(user, token)));
+        // Transparently upgrade hashes made with a different BCrypt cost; best effort, retried on next login
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                user.setPassword(passwordHashingService.hash(userDTO.getPassword()));
+                userRepository.save(user);
+                userCache.evict(user.getId());
+            } catch (ServiceUnavailableException e) {
+                // Hasher is saturated; keep the old hash rather than failing a valid login
+            }
+        }
+
+        String token = jwtUtil.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user.getId());
+        return ResponseEntity.ok(new MessageResponse("Welcome! You’ve logged in successfully.", AuthenticationResponse.mapToResponse(user, token, refreshToken)));
+    }
+
+    @RateLimit(name = "token-refresh", capacity = 30, refillTokens = 30, refillPeriodSeconds = 60)
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        RotatedToken rotated = refreshTokenService.rotate(request.getRefreshToken());
+        User user = userCache.findById(rotated.getUserId())
+                .orElseThrow(() -> new UnauthorizedException("User no longer exists"));
+
+        String token = jwtUtil.generateToken(user);
+        return ResponseEntity.ok(new MessageResponse("Token refreshed", AuthenticationResponse.mapToResponse(user, token, rotated.getRefreshToken())));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(authHeader.substring(7));
+                if (claims.getId() != null) {
+                    tokenRevocationService.revoke(claims.getId(), claims.getExpiration().getTime());
+                }
+            } catch (JwtException e) {
+                // Already expired or invalid, nothing left to revoke
+            }
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
     }
     
     @PutMapping("/profile")
     public ResponseEntity<?> updateUserProfile(@RequestBody UserDto profileDto) {
         User updatedUser = userService.updateProfile(profileDto);
+        userCache.evict(updatedUser.getId());
         return ResponseEntity.ok(new MessageResponse("Profile updated successfully", UserDto.fromUser(updatedUser)));
     }
     
@@ -13,11 +13,13 @@ import lombok.NoArgsConstructor;
 @Builder
 public class AuthenticationResponse  {
     private String token;
+    private String refreshToken;
     private UserDto userDto;
     
-    public static AuthenticationResponse mapToResponse(User user, String token) {
+    public static AuthenticationResponse mapToResponse(User user, String token, String refreshToken) {
     	return AuthenticationResponse.builder()
     			.token(token)
+    			.refreshToken(refreshToken)
     			.userDto(UserDto.fromUser(user))
     			.build();
     }   
@@ -0,0 +1,66 @@
+package com.masai.notionclone.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.masai.notionclone.exception.BadRequestException;
+
+/**
+ * Opaque cursor holding the ordering key of the last row of a slice plus its
+ * id as tie-breaker, e.g. (rank key, page id) or (shared at, share id).
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    // Bounds used in place of a cursor for the first slice, so the queries never bind nulls
+    public static final UUID MIN_ID = new UUID(0L, 0L);
+    public static final UUID MAX_ID = new UUID(-1L, -1L);
+    public static final LocalDateTime MIN_TIME = LocalDateTime.of(1, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final String key;
+    private final UUID id;
+
+    private KeysetCursor(String key, UUID id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static String encode(Object key, UUID id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null when no cursor was sent, i.e. the first slice is requested
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public LocalDateTime getKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package com.masai.notionclone.dto;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is opaque to
+ * clients and is passed back unchanged to fetch the following slice.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class PagedResponse<T> {
 	private List<T> content;
-    private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private String nextCursor;
     private boolean last;
+
+    /**
+     * Builds a response from rows fetched with {@code pageSize + 1} as the limit;
+     * the extra row only tells whether another slice exists.
+     */
+    public static <E, T> PagedResponse<T> fromSlice(List<E> rows, int pageSize,
+                                                    Function<E, String> cursorOf, Function<E, T> mapper) {
+        boolean last = rows.size() <= pageSize;
+        List<E> page = last ? rows : rows.subList(0, pageSize);
+        String nextCursor = last || page.isEmpty() ? null : cursorOf.apply(page.get(page.size() - 1));
+        List<T> content = new ArrayList<>(page.size());
+        for (E row : page) {
+            content.add(mapper.apply(row));
+        }
+        return new PagedResponse<>(content, pageSize, nextCursor, last);
+    }
 }
@@ -0,0 +1,15 @@
+package com.masai.notionclone.exception;
+
+// The client edited an outdated version; carries the version it should rebase on
+public class ConflictException extends RuntimeException {
+    private final Long currentVersion;
+
+    public ConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
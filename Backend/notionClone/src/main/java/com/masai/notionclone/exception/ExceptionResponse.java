@@ -2,6 +2,8 @@ package com.masai.notionclone.exception;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,5 +20,9 @@ public class ExceptionResponse {
     private String message;
     private String path;
     
+    // Only set on 409 version conflicts
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long currentVersion;
+    
     private String stackTrace;
 }
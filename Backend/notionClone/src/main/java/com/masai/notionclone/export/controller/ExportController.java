@@ -0,0 +1,61 @@
+package com.masai.notionclone.export.controller;
+
+import com.masai.notionclone.export.dto.ExportJobDto;
+import com.masai.notionclone.export.service.ExportFormat;
+import com.masai.notionclone.export.service.WorkspaceExporter;
+import com.masai.notionclone.export.service.WorkspaceExporter.ExportFile;
+import com.masai.notionclone.service.contextService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Tag(name = "Exports", description = "Background workspace export to XLSX or Markdown ZIP")
+@SecurityRequirement(name = "bearerAuth")
+public class ExportController {
+
+    private final WorkspaceExporter workspaceExporter;
+    private final contextService contextService;
+
+    @PostMapping("/workspaces/{workspaceId}/exports")
+    @Operation(summary = "Start exporting a workspace",
+               description = "Returns 202 with a job to poll; download the file once it is DONE")
+    public ResponseEntity<ExportJobDto> startExport(
+            @PathVariable UUID workspaceId,
+            @RequestParam(defaultValue = "XLSX") ExportFormat format) {
+        ExportJobDto job = workspaceExporter.startExport(workspaceId, format, contextService.getCurrentUserId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/exports/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/exports/{jobId}")
+    @Operation(summary = "Get the status of an export job")
+    public ResponseEntity<ExportJobDto> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(workspaceExporter.getJob(jobId, contextService.getCurrentUserId()));
+    }
+
+    @GetMapping("/exports/{jobId}/download")
+    @Operation(summary = "Download the file of a finished export")
+    public ResponseEntity<Resource> download(@PathVariable UUID jobId) {
+        ExportFile file = workspaceExporter.getFile(jobId, contextService.getCurrentUserId());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(file.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName()).build().toString())
+                .body(new FileSystemResource(file.getPath()));
+    }
+}
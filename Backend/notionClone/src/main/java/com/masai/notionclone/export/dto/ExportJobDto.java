@@ -0,0 +1,27 @@
+package com.masai.notionclone.export.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobDto {
+    private UUID id;
+    private UUID workspaceId;
+    // XLSX or ZIP
+    private String format;
+    // QUEUED, RUNNING, DONE or FAILED
+    private String state;
+    private long processed;
+    // Live pages plus blocks counted when the job started; null until then
+    private Long total;
+    private String error;
+    // Set once the file is ready
+    private String downloadUrl;
+}
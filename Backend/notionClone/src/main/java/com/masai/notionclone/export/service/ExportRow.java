@@ -0,0 +1,17 @@
+package com.masai.notionclone.export.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One page or block as read from the export cursor. Reused between rows.
+final class ExportRow {
+    UUID pageId;
+    UUID blockId;
+    UUID parentId;
+    int depth;
+    String type;
+    String title;
+    String icon;
+    String content;
+    LocalDateTime updatedAt;
+}
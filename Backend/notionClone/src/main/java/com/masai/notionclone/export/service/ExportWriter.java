@@ -0,0 +1,18 @@
+package com.masai.notionclone.export.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives a workspace one row at a time: each page followed by its live
+ * blocks in document order. Implementations must not buffer the whole stream.
+ */
+interface ExportWriter extends Closeable {
+
+    void page(ExportRow page) throws IOException;
+
+    void block(ExportRow block) throws IOException;
+
+    // Writes whatever trails the last row; close() then only releases resources
+    void finish() throws IOException;
+}
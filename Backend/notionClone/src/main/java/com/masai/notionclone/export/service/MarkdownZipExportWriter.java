@@ -0,0 +1,119 @@
+package com.masai.notionclone.export.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * One Markdown file per page. Entries are written as rows arrive, so only the
+ * current block is ever held; the id suffix keeps same-titled pages apart.
+ */
+class MarkdownZipExportWriter implements ExportWriter {
+
+    private static final int MAX_NAME_LENGTH = 60;
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private boolean entryOpen;
+
+    MarkdownZipExportWriter(OutputStream out) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void page(ExportRow page) throws IOException {
+        closeEntry();
+        zip.putNextEntry(new ZipEntry(fileName(page)));
+        entryOpen = true;
+        writer.write("# ");
+        if (page.icon != null && !page.icon.isBlank()) {
+            writer.write(page.icon);
+            writer.write(' ');
+        }
+        writer.write(page.title != null ? page.title : "Untitled");
+        writer.write("\n\n");
+        if (page.content != null && !page.content.isBlank()) {
+            writer.write(page.content);
+            writer.write("\n\n");
+        }
+    }
+
+    @Override
+    public void block(ExportRow block) throws IOException {
+        String content = block.content != null ? block.content : "";
+        String indent = "  ".repeat(block.depth);
+        String type = block.type != null ? block.type.toLowerCase() : "";
+
+        if (type.startsWith("code")) {
+            writer.write(indent + "```\n" + content + "\n" + indent + "```\n\n");
+            return;
+        }
+        if (type.startsWith("divider")) {
+            writer.write(indent + "---\n\n");
+            return;
+        }
+        writer.write(indent);
+        writer.write(prefix(type));
+        writer.write(content.replace("\n", "\n" + indent));
+        writer.write(type.contains("list") || type.startsWith("bullet") || type.startsWith("todo") ? "\n" : "\n\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        closeEntry();
+        zip.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+
+    private void closeEntry() throws IOException {
+        if (entryOpen) {
+            writer.flush();
+            zip.closeEntry();
+            entryOpen = false;
+        }
+    }
+
+    private static String prefix(String type) {
+        if (type.startsWith("heading1") || type.equals("h1")) {
+            return "## ";
+        }
+        if (type.startsWith("heading2") || type.equals("h2")) {
+            return "### ";
+        }
+        if (type.startsWith("heading")) {
+            return "#### ";
+        }
+        if (type.startsWith("todo") || type.startsWith("check")) {
+            return "- [ ] ";
+        }
+        if (type.startsWith("numbered") || type.startsWith("ordered")) {
+            return "1. ";
+        }
+        if (type.startsWith("bullet") || type.contains("list")) {
+            return "- ";
+        }
+        if (type.startsWith("quote")) {
+            return "> ";
+        }
+        return "";
+    }
+
+    private static String fileName(ExportRow page) {
+        String title = page.title != null ? page.title : "";
+        String safe = title.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "").trim().replaceAll("\\s+", " ");
+        if (safe.length() > MAX_NAME_LENGTH) {
+            safe = safe.substring(0, MAX_NAME_LENGTH).trim();
+        }
+        String id = page.pageId.toString().substring(0, 8);
+        return (safe.isEmpty() ? "Untitled" : safe) + " " + id + ".md";
+    }
+}
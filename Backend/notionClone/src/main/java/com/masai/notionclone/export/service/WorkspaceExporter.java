@@ -0,0 +1,313 @@
+package com.masai.notionclone.export.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ServiceUnavailableException;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.export.dto.ExportJobDto;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports a workspace to a file in the background. Pages and blocks come out
+ * of one server-side cursor in document order and go straight to the writer,
+ * so memory use doesn't grow with the workspace. Job status lives in Redis;
+ * the file is written under export.directory, which must be shared between
+ * nodes for downloads to work behind a load balancer.
+ */
+@Slf4j
+@Service
+public class WorkspaceExporter {
+
+    private static final String JOB_PREFIX = "export-job:";
+    private static final Duration JOB_TTL = Duration.ofDays(1);
+    private static final int PROGRESS_EVERY = 1000;
+
+    // Each page is followed by its live blocks, depth-first by rank. Blocks under an archived block are skipped;
+    // seen stops the walk should parent links ever form a cycle
+    private static final String ROWS =
+            "WITH RECURSIVE ws_pages AS (" +
+            "SELECT id FROM pages WHERE workspace_id = ? AND archived = false), " +
+            "tree AS (" +
+            "SELECT b.id, 0 AS depth, ARRAY[b.rank_key COLLATE \"C\"] AS path, ARRAY[b.id] AS seen " +
+            "FROM blocks b JOIN ws_pages p ON p.id = b.page_id WHERE b.parent_id IS NULL AND b.archived = false " +
+            "UNION ALL " +
+            "SELECT c.id, t.depth + 1, t.path || (c.rank_key COLLATE \"C\"), t.seen || c.id " +
+            "FROM blocks c JOIN tree t ON c.parent_id = t.id WHERE c.archived = false AND c.id <> ALL(t.seen)) " +
+            "SELECT p.id AS page_id, 0 AS kind, NULL::uuid AS block_id, p.parent_id, 0 AS depth, NULL AS type, " +
+            "p.title, p.icon, p.content, c.data AS blob, p.updated_at, NULL::text[] AS path " +
+            "FROM pages p JOIN ws_pages w ON w.id = p.id " +
+            "LEFT JOIN content_blobs c ON p.content_external AND c.owner_type = 'PAGE' AND c.owner_id = p.id " +
+            "UNION ALL " +
+            "SELECT b.page_id, 1, b.id, b.parent_id, t.depth, b.type, " +
+            "NULL, NULL, b.content, c.data, b.updated_at, t.path " +
+            "FROM tree t JOIN blocks b ON b.id = t.id " +
+            "LEFT JOIN content_blobs c ON b.content_external AND c.owner_type = 'BLOCK' AND c.owner_id = b.id " +
+            "ORDER BY page_id, kind, path, block_id";
+
+    private static final String COUNT =
+            "SELECT (SELECT count(*) FROM pages WHERE workspace_id = ? AND archived = false) + " +
+            "(SELECT count(*) FROM blocks b JOIN pages p ON p.id = b.page_id " +
+            "WHERE p.workspace_id = ? AND p.archived = false AND b.archived = false)";
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final Executor executor;
+    private final Path directory;
+
+    public WorkspaceExporter(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             RedisTemplate<String, String> redisTemplate,
+                             WorkspaceAccessCache workspaceAccessCache,
+                             @Qualifier("customExecutor") Executor executor,
+                             @Value("${export.directory:exports}") String directory,
+                             @Value("${export.fetch-size:500}") int fetchSize) {
+        // Postgres only streams a result set with a fetch size inside a transaction
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.workspaceAccessCache = workspaceAccessCache;
+        this.executor = executor;
+        this.directory = Paths.get(directory).toAbsolutePath();
+    }
+
+    public ExportJobDto startExport(UUID workspaceId, ExportFormat format, Long userId) {
+        if (!workspaceAccessCache.isMember(workspaceId, userId)) {
+            throw new UnauthorizedException("You don't have permission to export this workspace");
+        }
+
+        UUID jobId = UUID.randomUUID();
+        String key = JOB_PREFIX + jobId;
+        Map<String, String> fields = new HashMap<>();
+        fields.put("workspaceId", workspaceId.toString());
+        fields.put("userId", String.valueOf(userId));
+        fields.put("format", format.name());
+        fields.put("state", "QUEUED");
+        fields.put("processed", "0");
+        try {
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, JOB_TTL);
+        } catch (RuntimeException e) {
+            throw new ServiceUnavailableException("Exports are temporarily unavailable");
+        }
+
+        try {
+            executor.execute(() -> runJob(key, jobId, workspaceId, format));
+        } catch (RejectedExecutionException e) {
+            // Too heavy to fall back to the request thread
+            redisTemplate.delete(key);
+            throw new ServiceUnavailableException("Too many exports are running, try again later");
+        }
+        return new ExportJobDto(jobId, workspaceId, format.name(), "QUEUED", 0, null, null, null);
+    }
+
+    public ExportJobDto getJob(UUID jobId, Long userId) {
+        Map<Object, Object> fields = jobFields(jobId, userId);
+        String state = (String) fields.get("state");
+        String total = (String) fields.get("total");
+        return new ExportJobDto(jobId,
+                UUID.fromString((String) fields.get("workspaceId")),
+                (String) fields.get("format"),
+                state,
+                Long.parseLong((String) fields.getOrDefault("processed", "0")),
+                total != null ? Long.valueOf(total) : null,
+                (String) fields.get("error"),
+                "DONE".equals(state) ? "/api/exports/" + jobId + "/download" : null);
+    }
+
+    /**
+     * The finished file of a job started by this user.
+     */
+    public ExportFile getFile(UUID jobId, Long userId) {
+        Map<Object, Object> fields = jobFields(jobId, userId);
+        if (!"DONE".equals(fields.get("state"))) {
+            throw new BadRequestException("Export is not finished yet");
+        }
+        ExportFormat format = ExportFormat.valueOf((String) fields.get("format"));
+        Path file = resolve(jobId, format);
+        if (!Files.isReadable(file)) {
+            throw new BadRequestException("Export file is no longer available");
+        }
+        String name = "workspace-" + fields.get("workspaceId") + "." + format.getExtension();
+        return new ExportFile(file, name, format.getContentType());
+    }
+
+    // Files outlive their job record by at most one cleanup interval
+    @Scheduled(fixedDelayString = "${export.cleanup-interval-ms:3600000}")
+    public void deleteExpiredFiles() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(JOB_TTL);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "export-*")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up export directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private Map<Object, Object> jobFields(UUID jobId, Long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(JOB_PREFIX + jobId);
+        if (fields.isEmpty()) {
+            throw new BadRequestException("Export job not found");
+        }
+        if (!String.valueOf(userId).equals(fields.get("userId"))) {
+            throw new UnauthorizedException("You don't have permission to view this export");
+        }
+        return fields;
+    }
+
+    private void runJob(String key, UUID jobId, UUID workspaceId, ExportFormat format) {
+        Path target = resolve(jobId, format);
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            setState(key, "RUNNING", null);
+            Long total = cursorTemplate.queryForObject(COUNT, Long.class, workspaceId, workspaceId);
+            record(key, "total", total != null ? total : 0);
+
+            Files.createDirectories(directory);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024);
+                 ExportWriter writer = format == ExportFormat.XLSX
+                         ? new XlsxExportWriter(out)
+                         : new MarkdownZipExportWriter(out)) {
+                stream(key, workspaceId, writer);
+                writer.finish();
+            }
+            // Downloads never see a half-written file
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            setState(key, "DONE", null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Export job {} failed", key, e);
+            setState(key, "FAILED", e instanceof UncheckedIOException ? e.getCause().getMessage() : e.getMessage());
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Swept up by deleteExpiredFiles
+            }
+        }
+    }
+
+    private void stream(String key, UUID workspaceId, ExportWriter writer) {
+        ExportRow row = new ExportRow();
+        long[] processed = {0};
+        readOnlyTransaction.executeWithoutResult(status ->
+                cursorTemplate.query(ROWS, rs -> {
+                    read(rs, row);
+                    try {
+                        if (rs.getInt("kind") == 0) {
+                            writer.page(row);
+                        } else {
+                            writer.block(row);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (++processed[0] % PROGRESS_EVERY == 0) {
+                        record(key, "processed", processed[0]);
+                    }
+                }, workspaceId));
+        record(key, "processed", processed[0]);
+    }
+
+    private static void read(ResultSet rs, ExportRow row) throws SQLException {
+        row.pageId = rs.getObject("page_id", UUID.class);
+        row.blockId = rs.getObject("block_id", UUID.class);
+        row.parentId = rs.getObject("parent_id", UUID.class);
+        row.depth = rs.getInt("depth");
+        row.type = rs.getString("type");
+        row.title = rs.getString("title");
+        row.icon = rs.getString("icon");
+        InputStream blob = rs.getBinaryStream("blob");
+        row.content = blob != null ? ContentStore.inflate(blob) : rs.getString("content");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        row.updatedAt = updatedAt != null ? updatedAt.toLocalDateTime() : null;
+    }
+
+    private void record(String key, String field, long value) {
+        try {
+            redisTemplate.opsForHash().put(key, field, String.valueOf(value));
+        } catch (RuntimeException e) {
+            log.debug("Could not record {} for {}: {}", field, key, e.getMessage());
+        }
+    }
+
+    private void setState(String key, String state, String error) {
+        try {
+            redisTemplate.opsForHash().put(key, "state", state);
+            if (error != null) {
+                redisTemplate.opsForHash().put(key, "error", error);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not record state {} for {}: {}", state, key, e.getMessage());
+        }
+    }
+
+    private Path resolve(UUID jobId, ExportFormat format) {
+        return directory.resolve("export-" + jobId + "." + format.getExtension());
+    }
+
+    public static final class ExportFile {
+        private final Path path;
+        private final String fileName;
+        private final String contentType;
+
+        ExportFile(Path path, String fileName, String contentType) {
+            this.path = path;
+            this.fileName = fileName;
+            this.contentType = contentType;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.masai.notionclone.imports.controller;
+
+import com.masai.notionclone.imports.dto.ImportJobDto;
+import com.masai.notionclone.imports.service.WorkspaceImporter;
+import com.masai.notionclone.service.contextService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Tag(name = "Imports", description = "Bulk import of Markdown or JSON documents")
+@SecurityRequirement(name = "bearerAuth")
+public class ImportController {
+
+    private final WorkspaceImporter workspaceImporter;
+    private final contextService contextService;
+
+    // Raw body rather than multipart, so the archive is streamed to disk without multipart size limits
+    @PostMapping(value = "/workspaces/{workspaceId}/imports", consumes = {"application/zip", "application/octet-stream"})
+    @Operation(summary = "Import a ZIP of .md or .json documents as top-level pages",
+               description = "Returns 202 with a job to poll")
+    public ResponseEntity<ImportJobDto> startImport(@PathVariable UUID workspaceId, InputStream archive) {
+        ImportJobDto job = workspaceImporter.startImport(workspaceId, archive, contextService.getCurrentUserId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/imports/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/imports/{jobId}")
+    @Operation(summary = "Get the status of an import job")
+    public ResponseEntity<ImportJobDto> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(workspaceImporter.getJob(jobId, contextService.getCurrentUserId()));
+    }
+
+    @PostMapping("/imports/{jobId}/resume")
+    @Operation(summary = "Resume a failed or stalled import after its last committed chunk")
+    public ResponseEntity<ImportJobDto> resume(@PathVariable UUID jobId) {
+        return ResponseEntity.accepted().body(workspaceImporter.resume(jobId, contextService.getCurrentUserId()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.masai.notionclone.imports.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobDto {
+    private UUID id;
+    private UUID workspaceId;
+    // QUEUED, RUNNING, DONE, FAILED, or EXPIRED once a failed job's archive is cleaned up
+    private String state;
+    // Archive entries committed so far; a resumed job continues after them
+    private int entriesDone;
+    private int pages;
+    private int blocks;
+    // Entries that weren't documents or were too large
+    private int skipped;
+    private String error;
+    private LocalDateTime updatedAt;
+}
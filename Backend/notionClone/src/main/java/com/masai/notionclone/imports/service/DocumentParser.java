@@ -0,0 +1,206 @@
+package com.masai.notionclone.imports.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masai.notionclone.imports.service.ImportedDocument.Block;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Turns one archive entry into a page and its blocks. Markdown is read line by
+ * line; nesting follows indentation (two spaces or a tab per level), which is
+ * also how the ZIP export writes it. JSON documents look like
+ * {"title", "icon", "content", "blocks": [{"type", "content", "children": [...]}]}.
+ */
+@Component
+@RequiredArgsConstructor
+class DocumentParser {
+
+    private static final Pattern HEADING = Pattern.compile("(#{1,6})\\s+(.*)");
+    private static final Pattern TODO = Pattern.compile("[-*+]\\s+\\[[ xX]]\\s+(.*)");
+    private static final Pattern BULLET = Pattern.compile("[-*+]\\s+(.*)");
+    private static final Pattern NUMBERED = Pattern.compile("\\d+[.)]\\s+(.*)");
+    private static final Pattern QUOTE = Pattern.compile(">\\s?(.*)");
+    private static final Pattern DIVIDER = Pattern.compile("(-{3,}|\\*{3,}|_{3,})");
+    // Id suffix the ZIP export appends to file names
+    private static final Pattern EXPORT_SUFFIX = Pattern.compile("\\s+[0-9a-f]{8}$");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Null for entries that aren't .md or .json documents.
+     */
+    ImportedDocument parse(String entryName, byte[] data) throws IOException {
+        String name = entryName.toLowerCase(Locale.ROOT);
+        ImportedDocument document;
+        if (name.endsWith(".md") || name.endsWith(".markdown")) {
+            document = parseMarkdown(new String(data, StandardCharsets.UTF_8));
+        } else if (name.endsWith(".json")) {
+            document = parseJson(objectMapper.readTree(data));
+        } else {
+            return null;
+        }
+        if (document.title == null || document.title.isBlank()) {
+            document.title = titleFromName(entryName);
+        }
+        document.assignRankKeys();
+        return document;
+    }
+
+    private ImportedDocument parseMarkdown(String text) {
+        ImportedDocument document = new ImportedDocument();
+        List<Block> levels = new ArrayList<>();
+        StringBuilder paragraph = null;
+        int paragraphDepth = 0;
+        StringBuilder code = null;
+        int codeDepth = 0;
+
+        for (String line : text.split("\r?\n", -1)) {
+            if (code != null) {
+                if (line.trim().startsWith("```")) {
+                    add(document, levels, codeDepth, "code", code.toString());
+                    code = null;
+                } else {
+                    code.append(code.length() > 0 ? "\n" : "").append(stripIndent(line, codeDepth));
+                }
+                continue;
+            }
+
+            int depth = depth(line);
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("```") || isStructural(trimmed)) {
+                if (paragraph != null) {
+                    add(document, levels, paragraphDepth, "paragraph", paragraph.toString());
+                    paragraph = null;
+                }
+            }
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.startsWith("```")) {
+                code = new StringBuilder();
+                codeDepth = depth;
+                continue;
+            }
+
+            Matcher m;
+            if ((m = HEADING.matcher(trimmed)).matches()) {
+                int level = m.group(1).length();
+                // The first top-level heading is the page title
+                if (level == 1 && document.title == null && document.blocks.isEmpty()) {
+                    document.title = m.group(2).trim();
+                    continue;
+                }
+                add(document, levels, depth, "heading" + Math.min(3, Math.max(1, level - 1)), m.group(2));
+            } else if (DIVIDER.matcher(trimmed).matches()) {
+                add(document, levels, depth, "divider", "");
+            } else if ((m = TODO.matcher(trimmed)).matches()) {
+                add(document, levels, depth, "todo", m.group(1));
+            } else if ((m = BULLET.matcher(trimmed)).matches()) {
+                add(document, levels, depth, "bulleted_list", m.group(1));
+            } else if ((m = NUMBERED.matcher(trimmed)).matches()) {
+                add(document, levels, depth, "numbered_list", m.group(1));
+            } else if ((m = QUOTE.matcher(trimmed)).matches()) {
+                add(document, levels, depth, "quote", m.group(1));
+            } else if (paragraph != null) {
+                paragraph.append('\n').append(trimmed);
+            } else {
+                paragraph = new StringBuilder(trimmed);
+                paragraphDepth = depth;
+            }
+        }
+        if (code != null) {
+            add(document, levels, codeDepth, "code", code.toString());
+        }
+        if (paragraph != null) {
+            add(document, levels, paragraphDepth, "paragraph", paragraph.toString());
+        }
+        return document;
+    }
+
+    private ImportedDocument parseJson(JsonNode root) {
+        ImportedDocument document = new ImportedDocument();
+        document.title = text(root, "title");
+        document.icon = text(root, "icon");
+        document.content = text(root, "content");
+        addJsonBlocks(document, null, root.path("blocks"));
+        return document;
+    }
+
+    private void addJsonBlocks(ImportedDocument document, Block parent, JsonNode blocks) {
+        for (JsonNode node : blocks) {
+            String type = text(node, "type");
+            Block block = document.addBlock(parent, type != null ? type : "paragraph", text(node, "content"));
+            addJsonBlocks(document, block, node.path("children"));
+        }
+    }
+
+    // levels holds the last block seen at each depth; a deeper line hangs under it
+    private static void add(ImportedDocument document, List<Block> levels, int depth, String type, String content) {
+        int level = Math.min(depth, levels.size());
+        Block parent = level > 0 ? levels.get(level - 1) : null;
+        Block block = document.addBlock(parent, type, content);
+        while (levels.size() > level) {
+            levels.remove(levels.size() - 1);
+        }
+        levels.add(block);
+    }
+
+    private static boolean isStructural(String trimmed) {
+        return HEADING.matcher(trimmed).matches() || DIVIDER.matcher(trimmed).matches()
+                || BULLET.matcher(trimmed).matches() || NUMBERED.matcher(trimmed).matches()
+                || QUOTE.matcher(trimmed).matches();
+    }
+
+    private static int depth(String line) {
+        int spaces = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ' ') {
+                spaces++;
+            } else if (c == '\t') {
+                spaces += 2;
+            } else {
+                break;
+            }
+        }
+        return spaces / 2;
+    }
+
+    private static String stripIndent(String line, int depth) {
+        int strip = 0;
+        while (strip < line.length() && strip < depth * 2 && line.charAt(strip) == ' ') {
+            strip++;
+        }
+        return line.substring(strip);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        // Rich content (e.g. editor JSON) is kept as its serialized form
+        return value.isTextual() ? value.asText() : value.toString();
+    }
+
+    private static String titleFromName(String entryName) {
+        String name = entryName.substring(entryName.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        name = EXPORT_SUFFIX.matcher(name).replaceFirst("").trim();
+        return name.isEmpty() ? "Untitled" : name;
+    }
+}
@@ -0,0 +1,53 @@
+package com.masai.notionclone.imports.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.masai.notionclone.ordering.RankKeys;
+
+// One parsed page with its blocks in document order (parents before children)
+final class ImportedDocument {
+
+    final UUID id = UUID.randomUUID();
+    String title;
+    String icon;
+    String content;
+    final List<Block> blocks = new ArrayList<>();
+
+    Block addBlock(Block parent, String type, String content) {
+        Block block = new Block(parent != null ? parent.id : null, type, content);
+        blocks.add(block);
+        return block;
+    }
+
+    // Evenly spaced keys per sibling group, so nothing needs rebalancing afterwards
+    void assignRankKeys() {
+        Map<UUID, List<Block>> siblings = new HashMap<>();
+        for (Block block : blocks) {
+            siblings.computeIfAbsent(block.parentId != null ? block.parentId : id, k -> new ArrayList<>()).add(block);
+        }
+        for (List<Block> group : siblings.values()) {
+            List<String> keys = RankKeys.evenlySpaced(group.size());
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).rankKey = keys.get(i);
+            }
+        }
+    }
+
+    static final class Block {
+        final UUID id = UUID.randomUUID();
+        final UUID parentId;
+        final String type;
+        final String content;
+        String rankKey;
+
+        Block(UUID parentId, String type, String content) {
+            this.parentId = parentId;
+            this.type = type;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.masai.notionclone.imports.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ServiceUnavailableException;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.imports.dto.ImportJobDto;
+import com.masai.notionclone.imports.service.ImportedDocument.Block;
+import com.masai.notionclone.ordering.RankKeys;
+import com.masai.notionclone.page.service.PageTreeVersions;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports a ZIP of Markdown or JSON documents as top-level pages. The upload
+ * is spooled to import.directory and read back entry by entry, so only the
+ * current chunk of parsed documents is in memory. Each chunk is written with
+ * JDBC batches in one transaction that also advances import_jobs.entries_done;
+ * a failed or interrupted job resumes after the last committed chunk.
+ */
+@Slf4j
+@Service
+public class WorkspaceImporter {
+
+    private static final String INSERT_PAGE =
+            "INSERT INTO pages (id, title, icon, content, content_external, parent_id, workspace_id, rank_key, " +
+            "archived, created_at, updated_at, created_by, updated_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, NULL, ?, ?, false, now(), now(), ?, ?, 0)";
+
+    private static final String INSERT_BLOCK =
+            "INSERT INTO blocks (id, type, content, content_external, page_id, parent_id, rank_key, " +
+            "archived, created_at, updated_at, created_by, updated_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, false, now(), now(), ?, ?, 0)";
+
+    private static final String SELECT_JOB =
+            "SELECT id, workspace_id, user_id, file_path, state, entries_done, pages, blocks, skipped, error, updated_at " +
+            "FROM import_jobs WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentStore contentStore;
+    private final DocumentParser documentParser;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final PageTreeVersions pageTreeVersions;
+    private final Executor executor;
+    private final Path directory;
+    private final long maxUploadBytes;
+    private final int maxEntryBytes;
+    private final int chunkDocuments;
+    private final int chunkRows;
+    private final int batchSize;
+    private final Duration staleAfter;
+    private final int retentionHours;
+
+    public WorkspaceImporter(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ContentStore contentStore,
+                             DocumentParser documentParser,
+                             WorkspaceAccessCache workspaceAccessCache,
+                             PageTreeVersions pageTreeVersions,
+                             @Qualifier("customExecutor") Executor executor,
+                             @Value("${import.directory:imports}") String directory,
+                             @Value("${import.max-upload-bytes:209715200}") long maxUploadBytes,
+                             @Value("${import.max-entry-bytes:5242880}") int maxEntryBytes,
+                             @Value("${import.chunk-documents:100}") int chunkDocuments,
+                             @Value("${import.chunk-rows:5000}") int chunkRows,
+                             @Value("${import.batch-size:500}") int batchSize,
+                             @Value("${import.stale-after-minutes:10}") long staleAfterMinutes,
+                             @Value("${import.retention-hours:24}") int retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.contentStore = contentStore;
+        this.documentParser = documentParser;
+        this.workspaceAccessCache = workspaceAccessCache;
+        this.pageTreeVersions = pageTreeVersions;
+        this.executor = executor;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.chunkDocuments = chunkDocuments;
+        this.chunkRows = chunkRows;
+        this.batchSize = batchSize;
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Spools the uploaded archive to disk and starts importing it.
+     */
+    public ImportJobDto startImport(UUID workspaceId, InputStream archive, Long userId) {
+        if (!workspaceAccessCache.isOwner(workspaceId, userId)) {
+            throw new BadRequestException("You don't have access to this workspace");
+        }
+
+        UUID jobId = UUID.randomUUID();
+        Path file = directory.resolve("import-" + jobId + ".zip");
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                copyLimited(archive, out);
+            }
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new BadRequestException("Could not read the uploaded archive");
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+
+        jdbcTemplate.update("INSERT INTO import_jobs (id, workspace_id, user_id, file_path, state) VALUES (?, ?, ?, ?, 'QUEUED')",
+                jobId, workspaceId, userId, file.toString());
+        submit(jobId);
+        return getJob(jobId, userId);
+    }
+
+    public ImportJobDto getJob(UUID jobId, Long userId) {
+        JobRow job = loadJob(jobId);
+        if (!job.userId.equals(userId)) {
+            throw new UnauthorizedException("You don't have permission to view this import");
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Restarts a failed job, or one whose node stopped reporting progress,
+     * after its last committed chunk.
+     */
+    public ImportJobDto resume(UUID jobId, Long userId) {
+        JobRow job = loadJob(jobId);
+        if (!job.userId.equals(userId)) {
+            throw new UnauthorizedException("You don't have permission to resume this import");
+        }
+        // Claimed with a conditional update so two resumes can't run the same job twice
+        int claimed = jdbcTemplate.update("UPDATE import_jobs SET state = 'QUEUED', error = NULL, updated_at = now() " +
+                        "WHERE id = ? AND (state = 'FAILED' OR (state IN ('QUEUED', 'RUNNING') AND updated_at < ?))",
+                jobId, Timestamp.valueOf(LocalDateTime.now().minus(staleAfter)));
+        if (claimed == 0) {
+            throw new BadRequestException("Only failed or stalled imports can be resumed");
+        }
+        if (!Files.isReadable(Paths.get(job.filePath))) {
+            setFailed(jobId, "Uploaded archive is not available on this node");
+            throw new BadRequestException("Uploaded archive is no longer available");
+        }
+        submit(jobId);
+        return getJob(jobId, userId);
+    }
+
+    private void submit(UUID jobId) {
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            // Too heavy for the request thread; the spooled archive stays for a later resume
+            setFailed(jobId, "Too many background jobs were running");
+            throw new ServiceUnavailableException("Too many imports are running, try again later");
+        }
+    }
+
+    // Archives of jobs nobody resumed are dropped after import.retention-hours
+    @Scheduled(fixedDelayString = "${import.cleanup-interval-ms:3600000}")
+    public void deleteAbandonedArchives() {
+        List<Map<String, Object>> abandoned = jdbcTemplate.queryForList(
+                "UPDATE import_jobs SET state = 'EXPIRED', updated_at = now() " +
+                "WHERE state = 'FAILED' AND updated_at < now() - make_interval(hours => ?) RETURNING file_path",
+                retentionHours);
+        for (Map<String, Object> job : abandoned) {
+            deleteQuietly(Paths.get((String) job.get("file_path")));
+        }
+    }
+
+    private void runJob(UUID jobId) {
+        JobRow job = loadJob(jobId);
+        jdbcTemplate.update("UPDATE import_jobs SET state = 'RUNNING', updated_at = now() WHERE id = ?", jobId);
+
+        List<ImportedDocument> chunk = new ArrayList<>();
+        int chunkBlocks = 0;
+        int skipped = 0;
+        int entryIndex = 0;
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(job.filePath))))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                // Entries come back in the same order on every pass, so the index is a stable resume point
+                if (entryIndex++ < job.entriesDone) {
+                    continue;
+                }
+                ImportedDocument document = null;
+                if (!entry.isDirectory()) {
+                    byte[] data = readEntry(zip);
+                    document = data != null ? documentParser.parse(entry.getName(), data) : null;
+                }
+                if (document == null) {
+                    skipped++;
+                } else {
+                    chunk.add(document);
+                    chunkBlocks += document.blocks.size();
+                }
+                if (chunk.size() >= chunkDocuments || chunkBlocks >= chunkRows) {
+                    commitChunk(job, chunk, entryIndex, skipped);
+                    chunk.clear();
+                    chunkBlocks = 0;
+                    skipped = 0;
+                }
+            }
+            commitChunk(job, chunk, entryIndex, skipped);
+            jdbcTemplate.update("UPDATE import_jobs SET state = 'DONE', updated_at = now() WHERE id = ?", jobId);
+            deleteQuietly(Paths.get(job.filePath));
+        } catch (IOException | RuntimeException e) {
+            // Committed chunks stay; resume picks up after them
+            log.error("Import job {} failed", jobId, e);
+            setFailed(jobId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void commitChunk(JobRow job, List<ImportedDocument> chunk, int entriesDone, int skipped) {
+        int blockCount = chunk.stream().mapToInt(document -> document.blocks.size()).sum();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!chunk.isEmpty()) {
+                insertChunk(job, chunk);
+            }
+            jdbcTemplate.update("UPDATE import_jobs SET entries_done = ?, pages = pages + ?, blocks = blocks + ?, " +
+                            "skipped = skipped + ?, updated_at = now() WHERE id = ?",
+                    entriesDone, chunk.size(), blockCount, skipped, job.id);
+            if (!chunk.isEmpty()) {
+                AfterCommit.run(() -> pageTreeVersions.bump(job.workspaceId));
+            }
+        });
+    }
+
+    private void insertChunk(JobRow job, List<ImportedDocument> chunk) {
+        // Imported pages go after the existing top-level pages, in archive order
+        String rankKey = jdbcTemplate.queryForObject(
+                "SELECT max(rank_key) FROM pages WHERE workspace_id = ? AND parent_id IS NULL",
+                String.class, job.workspaceId);
+        List<Object[]> pages = new ArrayList<>(chunk.size());
+        List<Object[]> blocks = new ArrayList<>();
+        for (ImportedDocument document : chunk) {
+            rankKey = RankKeys.between(rankKey, null);
+            boolean external = contentStore.writeExternalIfLarge(ContentOwner.PAGE, document.id, document.content);
+            pages.add(new Object[]{document.id, truncate(document.title, 255), truncate(document.icon, 255),
+                    external ? null : document.content, external, job.workspaceId, rankKey, job.userId, job.userId});
+            for (Block block : document.blocks) {
+                boolean blockExternal = contentStore.writeExternalIfLarge(ContentOwner.BLOCK, block.id, block.content);
+                blocks.add(new Object[]{block.id, truncate(block.type, 255), blockExternal ? null : block.content,
+                        blockExternal, document.id, block.parentId, block.rankKey, job.userId, job.userId});
+            }
+        }
+        // Parents precede their children in both lists, and the foreign keys see earlier batches
+        for (int from = 0; from < pages.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_PAGE, pages.subList(from, Math.min(from + batchSize, pages.size())));
+        }
+        for (int from = 0; from < blocks.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_BLOCK, blocks.subList(from, Math.min(from + batchSize, blocks.size())));
+        }
+    }
+
+    // Null when the entry is over import.max-entry-bytes; the rest of it is skipped
+    private byte[] readEntry(ZipInputStream zip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zip.read(buffer)) != -1) {
+            if (out.size() + read > maxEntryBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private void copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxUploadBytes) {
+                throw new BadRequestException("Archive is larger than " + maxUploadBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        if (total == 0) {
+            throw new BadRequestException("Archive is empty");
+        }
+    }
+
+    private JobRow loadJob(UUID jobId) {
+        try {
+            return jdbcTemplate.queryForObject(SELECT_JOB, (rs, rowNum) -> {
+                JobRow row = new JobRow();
+                row.id = rs.getObject("id", UUID.class);
+                row.workspaceId = rs.getObject("workspace_id", UUID.class);
+                row.userId = rs.getLong("user_id");
+                row.filePath = rs.getString("file_path");
+                row.state = rs.getString("state");
+                row.entriesDone = rs.getInt("entries_done");
+                row.pages = rs.getInt("pages");
+                row.blocks = rs.getInt("blocks");
+                row.skipped = rs.getInt("skipped");
+                row.error = rs.getString("error");
+                row.updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
+                return row;
+            }, jobId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new BadRequestException("Import job not found");
+        }
+    }
+
+    private void setFailed(UUID jobId, String error) {
+        try {
+            jdbcTemplate.update("UPDATE import_jobs SET state = 'FAILED', error = ?, updated_at = now() WHERE id = ?",
+                    truncate(error, 1000), jobId);
+        } catch (RuntimeException e) {
+            log.warn("Could not mark import job {} as failed: {}", jobId, e.getMessage());
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class JobRow {
+        UUID id;
+        UUID workspaceId;
+        Long userId;
+        String filePath;
+        String state;
+        int entriesDone;
+        int pages;
+        int blocks;
+        int skipped;
+        String error;
+        LocalDateTime updatedAt;
+
+        ImportJobDto toDto() {
+            return new ImportJobDto(id, workspaceId, state, entriesDone, pages, blocks, skipped, error, updatedAt);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-page block operation log. page_op_heads hands out sequence numbers
+ * (its row lock keeps them gap-free and in commit order) and tracks how far
+ * snapshots and pruning have got, so the compactor never scans the log itself.
+ * All three tables go with their page when it is hard-deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlockOperationLogMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS page_op_heads (" +
+                "page_id uuid PRIMARY KEY REFERENCES pages (id) ON DELETE CASCADE, " +
+                "last_seq bigint NOT NULL, " +
+                "snapshot_seq bigint NOT NULL DEFAULT 0, " +
+                "pruned_seq bigint NOT NULL DEFAULT 0)");
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS block_operations (" +
+                "page_id uuid NOT NULL REFERENCES pages (id) ON DELETE CASCADE, " +
+                "seq bigint NOT NULL, " +
+                "block_id uuid NOT NULL, " +
+                "op varchar(16) NOT NULL, " +
+                "payload text, " +
+                "user_id bigint, " +
+                "created_at timestamp NOT NULL DEFAULT now(), " +
+                "PRIMARY KEY (page_id, seq))");
+        // Pruning looks for operations past the retention period
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_block_operations_created " +
+                "ON block_operations (created_at)");
+
+        // Whole-page block state as of seq, deflated JSON
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS block_snapshots (" +
+                "page_id uuid NOT NULL REFERENCES pages (id) ON DELETE CASCADE, " +
+                "seq bigint NOT NULL, " +
+                "block_count integer NOT NULL, " +
+                "data bytea NOT NULL, " +
+                "created_at timestamp NOT NULL DEFAULT now(), " +
+                "PRIMARY KEY (page_id, seq))");
+        jdbcTemplate.execute("ALTER TABLE block_snapshots ALTER COLUMN data SET STORAGE EXTERNAL");
+
+        // Compactor's work list: pages far enough past their last snapshot
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_page_op_heads_backlog " +
+                "ON page_op_heads ((last_seq - snapshot_seq))");
+    }
+}
@@ -0,0 +1,34 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Schema for out-of-row content. Moving existing large bodies is done in the
+ * background by ContentExternalizer, not at startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentStorageMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Values are already compressed, so keep Postgres from trying TOAST compression again
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS content_blobs (" +
+                "owner_type varchar(16) NOT NULL, " +
+                "owner_id uuid NOT NULL, " +
+                "raw_length integer NOT NULL, " +
+                "data bytea NOT NULL, " +
+                "PRIMARY KEY (owner_type, owner_id))");
+        jdbcTemplate.execute("ALTER TABLE content_blobs ALTER COLUMN data SET STORAGE EXTERNAL");
+
+        // Blocks kept in content_blobs have no inline body
+        jdbcTemplate.execute("ALTER TABLE blocks ALTER COLUMN content DROP NOT NULL");
+    }
+}
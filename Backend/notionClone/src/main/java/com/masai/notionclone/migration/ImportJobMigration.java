@@ -0,0 +1,36 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Import progress is committed together with each chunk of imported rows, so
+ * it lives in the database rather than in Redis.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportJobMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS import_jobs (" +
+                "id uuid PRIMARY KEY, " +
+                "workspace_id uuid NOT NULL REFERENCES workspaces (id) ON DELETE CASCADE, " +
+                "user_id bigint NOT NULL, " +
+                "file_path text NOT NULL, " +
+                "state varchar(16) NOT NULL, " +
+                "entries_done integer NOT NULL DEFAULT 0, " +
+                "pages integer NOT NULL DEFAULT 0, " +
+                "blocks integer NOT NULL DEFAULT 0, " +
+                "skipped integer NOT NULL DEFAULT 0, " +
+                "error text, " +
+                "created_at timestamp NOT NULL DEFAULT now(), " +
+                "updated_at timestamp NOT NULL DEFAULT now())");
+    }
+}
@@ -0,0 +1,32 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Indexes matching the ordering of the keyset-paginated listings, so every
+ * slice is an index range scan regardless of how deep the cursor is.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingIndexMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pages_workspace_rank_id " +
+                "ON pages (workspace_id, rank_key, id) WHERE archived = false");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pages_created_by_id ON pages (created_by, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_shares_email_shared_at " +
+                "ON shares (shared_with_email, shared_at DESC, id DESC) WHERE is_active = true");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_favorites_user_favorited_at " +
+                "ON user_page_favorites (user_id, favorited_at DESC, page_id DESC)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_members_workspace_joined_at " +
+                "ON workspace_members (workspace_id, joined_at, id)");
+    }
+}
@@ -0,0 +1,41 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds the old global pages.favorite flag into user_page_favorites. Only the
+ * page creator could ever flip it, so each flagged page becomes a favorite of
+ * its creator, and the column is dropped afterwards.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageFavoriteFlagMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_name = 'pages' AND column_name = 'favorite'", Integer.class);
+        if (columns == null || columns == 0) {
+            return;
+        }
+
+        int migrated = jdbcTemplate.update(
+                "INSERT INTO user_page_favorites (user_id, page_id, favorited_at) " +
+                "SELECT p.created_by, p.id, now() FROM pages p WHERE p.favorite = true " +
+                "ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("ALTER TABLE pages DROP COLUMN favorite");
+        log.info("Moved {} page favorite flags into user_page_favorites", migrated);
+    }
+}
@@ -0,0 +1,102 @@
+package com.masai.notionclone.migration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.masai.notionclone.ordering.RankKeys;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replaces the integer position columns of blocks and pages with rank keys.
+ * Each sibling group gets evenly spaced keys in its old position order, then
+ * the position column is dropped. Also makes sure the sibling lookup indexes exist.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RankKeyMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        migrate("blocks", "page_id");
+        migrate("pages", "workspace_id");
+
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_blocks_page_parent_rank ON blocks (page_id, parent_id, rank_key)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_blocks_parent_rank ON blocks (parent_id, rank_key)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pages_workspace_parent_rank ON pages (workspace_id, parent_id, rank_key)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pages_parent_rank ON pages (parent_id, rank_key)");
+    }
+
+    private void migrate(String table, String scopeColumn) {
+        if (columnExists(table, "position")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS rank_key text COLLATE \"C\"");
+
+            List<Object[]> updates = new ArrayList<>();
+            List<UUID> group = new ArrayList<>();
+            Object[] currentGroup = new Object[2];
+            jdbcTemplate.query("SELECT id, " + scopeColumn + ", parent_id FROM " + table +
+                    " ORDER BY " + scopeColumn + ", parent_id, position, created_at, id", rs -> {
+                Object scope = rs.getObject(2);
+                Object parent = rs.getObject(3);
+                if (!Objects.equals(scope, currentGroup[0]) || !Objects.equals(parent, currentGroup[1])) {
+                    flushGroup(table, group, updates);
+                    currentGroup[0] = scope;
+                    currentGroup[1] = parent;
+                }
+                group.add(rs.getObject(1, UUID.class));
+            });
+            flushGroup(table, group, updates);
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE " + table + " SET rank_key = ? WHERE id = ?", updates);
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN position");
+            log.info("Migrated {} positions to rank keys", table);
+        }
+
+        if (isNullable(table, "rank_key")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN rank_key SET NOT NULL");
+        }
+    }
+
+    private void flushGroup(String table, List<UUID> group, List<Object[]> updates) {
+        List<String> keys = RankKeys.evenlySpaced(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            updates.add(new Object[] { keys.get(i), group.get(i) });
+        }
+        group.clear();
+        if (updates.size() >= BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("UPDATE " + table + " SET rank_key = ? WHERE id = ?", updates);
+            updates.clear();
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean isNullable(String table, String column) {
+        List<String> nullable = jdbcTemplate.queryForList(
+                "SELECT is_nullable FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                String.class, table, column);
+        return !nullable.isEmpty() && "YES".equals(nullable.get(0));
+    }
+}
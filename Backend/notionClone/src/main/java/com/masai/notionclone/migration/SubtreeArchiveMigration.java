@@ -0,0 +1,31 @@
+package com.masai.notionclone.migration;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * archived_with records which subtree archive took a row down, so a restore
+ * brings back exactly those rows and leaves separately deleted ones alone.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubtreeArchiveMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute("ALTER TABLE pages ADD COLUMN IF NOT EXISTS archived_with uuid");
+        jdbcTemplate.execute("ALTER TABLE blocks ADD COLUMN IF NOT EXISTS archived_with uuid");
+
+        // Only archived rows carry a value, so the partial indexes stay small
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pages_archived_with ON pages (archived_with) " +
+                "WHERE archived_with IS NOT NULL");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_blocks_archived_with ON blocks (archived_with) " +
+                "WHERE archived_with IS NOT NULL");
+    }
+}
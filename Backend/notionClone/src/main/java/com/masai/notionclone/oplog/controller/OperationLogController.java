@@ -0,0 +1,34 @@
+package com.masai.notionclone.oplog.controller;
+
+import com.masai.notionclone.oplog.dto.OperationLogResponse;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+import com.masai.notionclone.service.contextService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/pages")
+@RequiredArgsConstructor
+@Tag(name = "Operation log", description = "Ordered history of block changes per page")
+@SecurityRequirement(name = "bearerAuth")
+public class OperationLogController {
+
+    private final BlockOperationLog blockOperationLog;
+    private final contextService contextService;
+
+    @GetMapping("/{pageId}/operations")
+    @Operation(summary = "Get block operations after a sequence number",
+               description = "Without since, or when older operations were pruned, a snapshot to start from is included")
+    public ResponseEntity<OperationLogResponse> getOperations(
+            @PathVariable UUID pageId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(blockOperationLog.read(pageId, since, limit, contextService.getCurrentUserId()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.masai.notionclone.oplog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BlockOperationDto {
+    private long seq;
+    private UUID blockId;
+    // CREATE, UPDATE, MOVE, ARCHIVE or RESTORE
+    private String op;
+    // Block fields after the change (only the changed ones for content flushes); none for ARCHIVE and RESTORE
+    @JsonRawValue
+    private String payload;
+    private Long userId;
+    private LocalDateTime createdAt;
+}
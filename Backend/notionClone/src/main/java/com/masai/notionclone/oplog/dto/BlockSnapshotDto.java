@@ -0,0 +1,19 @@
+package com.masai.notionclone.oplog.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockSnapshotDto {
+    private long seq;
+    private LocalDateTime createdAt;
+    // Live blocks of the page as of seq, as a JSON array of BlockDto
+    @JsonRawValue
+    private String blocks;
+}
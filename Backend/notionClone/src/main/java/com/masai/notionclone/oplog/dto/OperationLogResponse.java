@@ -0,0 +1,21 @@
+package com.masai.notionclone.oplog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OperationLogResponse {
+    private long latestSeq;
+    // Set when the requested operations were pruned: start from it, then apply operations
+    private BlockSnapshotDto snapshot;
+    private List<BlockOperationDto> operations;
+    // More operations follow; ask again with since = the last seq returned
+    private boolean hasMore;
+}
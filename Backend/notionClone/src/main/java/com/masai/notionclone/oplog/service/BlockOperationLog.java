@@ -0,0 +1,164 @@
+package com.masai.notionclone.oplog.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.oplog.dto.BlockOperationDto;
+import com.masai.notionclone.oplog.dto.BlockSnapshotDto;
+import com.masai.notionclone.oplog.dto.OperationLogResponse;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Append-only history of block changes per page. Operations are written in
+ * the transaction that makes the change, numbered from page_op_heads, so the
+ * log commits or rolls back with it and sequence order is commit order per
+ * page. Older operations are folded into snapshots and pruned by
+ * {@link OperationLogCompactor}.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlockOperationLog {
+
+    public enum Op { CREATE, UPDATE, MOVE, ARCHIVE, RESTORE }
+
+    private static final TypeReference<Map<String, Object>> FIELDS = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Pagination pagination;
+    private final OperationLogCompactor compactor;
+    private final WorkspaceAccessCache workspaceAccessCache;
+
+    // Records the full state of a block after a create, update or move
+    public void recordState(UUID pageId, Op op, BlockDto block, Long userId) {
+        append(pageId, List.of(state(op, block, userId)));
+    }
+
+    // Records a whole-subtree archive or restore rooted at the block
+    public void recordSubtree(UUID pageId, Op op, UUID blockId, Long userId) {
+        append(pageId, List.of(new Entry(blockId, op, null, userId)));
+    }
+
+    public Entry state(Op op, BlockDto block, Long userId) {
+        Map<String, Object> fields = objectMapper.convertValue(block, FIELDS);
+        fields.remove("children");
+        // Explicit so a move to the top level is visible when the payload is merged
+        fields.put("parentId", block.getParentId());
+        return new Entry(block.getId(), op, json(fields), userId);
+    }
+
+    public Entry content(UUID blockId, String content, Long userId, LocalDateTime updatedAt) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("content", content);
+        fields.put("updatedBy", userId);
+        fields.put("updatedAt", updatedAt.toString());
+        return new Entry(blockId, Op.UPDATE, json(fields), userId);
+    }
+
+    /**
+     * Must run inside the transaction making the change; the page's head row
+     * stays locked until it ends.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(UUID pageId, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Long last = jdbcTemplate.queryForObject(
+                "INSERT INTO page_op_heads (page_id, last_seq) VALUES (?, ?) " +
+                "ON CONFLICT (page_id) DO UPDATE SET last_seq = page_op_heads.last_seq + EXCLUDED.last_seq " +
+                "RETURNING last_seq",
+                Long.class, pageId, entries.size());
+        long seq = last - entries.size();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            rows.add(new Object[]{pageId, ++seq, entry.blockId, entry.op.name(), entry.payload, entry.userId, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO block_operations (page_id, seq, block_id, op, payload, user_id, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Operations after {@code since}. Without a cursor, or when some of the
+     * requested operations were already pruned, the latest snapshot comes
+     * first and the operations continue from it. Blocks that existed before
+     * the page's first logged operation only appear in snapshots.
+     */
+    public OperationLogResponse read(UUID pageId, Long since, Integer limit, Long userId) {
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (workspaceId == null || !workspaceAccessCache.isMember(workspaceId, userId)) {
+            throw new UnauthorizedException("You don't have access to this page");
+        }
+        int size = pagination.resolveSize(limit);
+        long prunedSeq = jdbcTemplate.query("SELECT pruned_seq FROM page_op_heads WHERE page_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : 0L, pageId);
+
+        BlockSnapshotDto snapshot = null;
+        long from;
+        if (since == null || since <= 0 || since < prunedSeq) {
+            snapshot = compactor.latestSnapshot(pageId);
+            from = snapshot.getSeq();
+        } else {
+            from = since;
+        }
+
+        List<BlockOperationDto> operations = jdbcTemplate.query(
+                "SELECT seq, block_id, op, payload, user_id, created_at FROM block_operations " +
+                "WHERE page_id = ? AND seq > ? ORDER BY seq LIMIT ?",
+                (rs, rowNum) -> new BlockOperationDto(rs.getLong("seq"),
+                        rs.getObject("block_id", UUID.class),
+                        rs.getString("op"),
+                        rs.getString("payload"),
+                        (Long) rs.getObject("user_id"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                pageId, from, size + 1);
+        boolean hasMore = operations.size() > size;
+        if (hasMore) {
+            operations = operations.subList(0, size);
+        }
+        long latestSeq = jdbcTemplate.query("SELECT last_seq FROM page_op_heads WHERE page_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : 0L, pageId);
+        return new OperationLogResponse(latestSeq, snapshot, operations, hasMore);
+    }
+
+    private String json(Map<String, Object> fields) {
+        try {
+            return objectMapper.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize block operation", e);
+        }
+    }
+
+    public static final class Entry {
+        private final UUID blockId;
+        private final Op op;
+        private final String payload;
+        private final Long userId;
+
+        public Entry(UUID blockId, Op op, String payload, Long userId) {
+            this.blockId = blockId;
+            this.op = op;
+            this.payload = payload;
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.masai.notionclone.oplog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.block.repository.BlockRepository;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.oplog.dto.BlockSnapshotDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds each page's operation log into a snapshot once enough operations have
+ * piled up behind the last one, and prunes operations the snapshot covers
+ * after the retention period. Pruning never passes the latest snapshot, so a
+ * reader can always rebuild from snapshot plus the operations that follow.
+ */
+@Slf4j
+@Component
+public class OperationLogCompactor {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockRepository blockRepository;
+    private final ContentStore contentStore;
+    private final ObjectMapper objectMapper;
+    private final int snapshotEvery;
+    private final int pagesPerRun;
+    private final int retentionDays;
+    private final int pruneBatchSize;
+
+    public OperationLogCompactor(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 BlockRepository blockRepository,
+                                 ContentStore contentStore,
+                                 ObjectMapper objectMapper,
+                                 @Value("${oplog.snapshot-every:500}") int snapshotEvery,
+                                 @Value("${oplog.pages-per-run:100}") int pagesPerRun,
+                                 @Value("${oplog.retention-days:30}") int retentionDays,
+                                 @Value("${oplog.prune-batch-size:5000}") int pruneBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blockRepository = blockRepository;
+        this.contentStore = contentStore;
+        this.objectMapper = objectMapper;
+        this.snapshotEvery = snapshotEvery;
+        this.pagesPerRun = pagesPerRun;
+        this.retentionDays = retentionDays;
+        this.pruneBatchSize = pruneBatchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${oplog.compact-interval-ms:60000}")
+    public void compact() {
+        List<UUID> pages = jdbcTemplate.queryForList(
+                "SELECT page_id FROM page_op_heads WHERE last_seq - snapshot_seq >= ? LIMIT ?",
+                UUID.class, snapshotEvery, pagesPerRun);
+        for (UUID pageId : pages) {
+            try {
+                takeSnapshot(pageId);
+            } catch (RuntimeException e) {
+                log.error("Snapshot of page {} failed", pageId, e);
+            }
+        }
+        prune();
+    }
+
+    /**
+     * The newest snapshot of the page, taken now if it has none yet.
+     */
+    public BlockSnapshotDto latestSnapshot(UUID pageId) {
+        List<BlockSnapshotDto> latest = jdbcTemplate.query(
+                "SELECT seq, created_at, data FROM block_snapshots WHERE page_id = ? ORDER BY seq DESC LIMIT 1",
+                (rs, rowNum) -> new BlockSnapshotDto(rs.getLong("seq"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        ContentStore.inflate(rs.getBinaryStream("data"))),
+                pageId);
+        return latest.isEmpty() ? takeSnapshot(pageId) : latest.get(0);
+    }
+
+    /**
+     * Captures the live blocks as of the page's last sequence number. Writers
+     * hold the head row lock from their append until they commit, so once it
+     * is ours every numbered change is visible and no other one is.
+     */
+    public BlockSnapshotDto takeSnapshot(UUID pageId) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("INSERT INTO page_op_heads (page_id, last_seq) VALUES (?, 0) " +
+                    "ON CONFLICT (page_id) DO NOTHING", pageId);
+            long seq = jdbcTemplate.queryForObject(
+                    "SELECT last_seq FROM page_op_heads WHERE page_id = ? FOR UPDATE", Long.class, pageId);
+
+            List<Block> blocks = blockRepository.findByPageIdAndArchivedFalseOrderByRankKeyAscIdAsc(pageId);
+            Map<UUID, String> contents = contentStore.readAll(ContentOwner.BLOCK, blocks);
+            List<BlockDto> dtos = blocks.stream()
+                    .map(block -> {
+                        BlockDto dto = block.toDto();
+                        dto.setContent(contents.get(block.getId()));
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(dtos);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize snapshot of page " + pageId, e);
+            }
+
+            jdbcTemplate.update("INSERT INTO block_snapshots (page_id, seq, block_count, data) VALUES (?, ?, ?, ?) " +
+                            "ON CONFLICT (page_id, seq) DO NOTHING",
+                    pageId, seq, dtos.size(), ContentStore.deflate(json.getBytes(StandardCharsets.UTF_8)));
+            jdbcTemplate.update("UPDATE page_op_heads SET snapshot_seq = GREATEST(snapshot_seq, ?) WHERE page_id = ?",
+                    seq, pageId);
+            return new BlockSnapshotDto(seq, LocalDateTime.now(), json);
+        });
+    }
+
+    // Bounded deletes, so a large backlog after downtime doesn't hold one long transaction
+    private void prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        long total = 0;
+        Long deleted;
+        do {
+            deleted = jdbcTemplate.queryForObject(
+                    "WITH doomed AS (" +
+                    "  SELECT o.page_id, o.seq FROM block_operations o " +
+                    "  JOIN page_op_heads h ON h.page_id = o.page_id " +
+                    "  WHERE o.created_at < ? AND o.seq <= h.snapshot_seq LIMIT ?), " +
+                    "deleted AS (" +
+                    "  DELETE FROM block_operations o USING doomed d " +
+                    "  WHERE o.page_id = d.page_id AND o.seq = d.seq RETURNING o.page_id, o.seq), " +
+                    "heads AS (" +
+                    "  UPDATE page_op_heads h SET pruned_seq = GREATEST(h.pruned_seq, m.seq) " +
+                    "  FROM (SELECT page_id, max(seq) AS seq FROM deleted GROUP BY page_id) m " +
+                    "  WHERE h.page_id = m.page_id RETURNING 1) " +
+                    "SELECT count(*) FROM deleted",
+                    Long.class, cutoff, pruneBatchSize);
+            total += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted >= pruneBatchSize);
+
+        // Readers only ever start from the newest snapshot
+        int snapshots = jdbcTemplate.update("DELETE FROM block_snapshots s USING page_op_heads h " +
+                "WHERE s.page_id = h.page_id AND s.seq < h.snapshot_seq");
+        if (total > 0 || snapshots > 0) {
+            log.info("Pruned {} block operations and {} superseded snapshots", total, snapshots);
+        }
+    }
+}
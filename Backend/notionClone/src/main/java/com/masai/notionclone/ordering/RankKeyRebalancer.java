@@ -0,0 +1,179 @@
+package com.masai.notionclone.ordering;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.block.repository.BlockRepository;
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+import com.masai.notionclone.realtime.dto.BlockEvent;
+import com.masai.notionclone.realtime.service.PageEventBroadcaster;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compacts sibling groups whose rank keys have grown long from repeated
+ * inserts into the same gap. Writers flag such groups in a Redis set; a
+ * scheduled job rewrites each flagged group with evenly spaced keys, keeping
+ * the existing order. Re-keyed blocks are logged and broadcast as moves.
+ * Versions are left alone: nobody edited these rows, so an open editor's next
+ * versioned write must not fail with a conflict over a background re-key.
+ */
+@Slf4j
+@Component
+public class RankKeyRebalancer {
+
+    private static final String PENDING_KEY = "rank-rebalance";
+
+    public enum RankedTable {
+        BLOCKS("blocks", "page_id"),
+        PAGES("pages", "workspace_id");
+
+        private final String table;
+        private final String scopeColumn;
+
+        RankedTable(String table, String scopeColumn) {
+            this.table = table;
+            this.scopeColumn = scopeColumn;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheManager cacheManager;
+    private final BlockRepository blockRepository;
+    private final ContentStore contentStore;
+    private final BlockOperationLog blockOperationLog;
+    private final PageEventBroadcaster pageEventBroadcaster;
+    private final int maxKeyLength;
+    private final int batchSize;
+
+    public RankKeyRebalancer(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             RedisTemplate<String, String> redisTemplate,
+                             CacheManager cacheManager,
+                             BlockRepository blockRepository,
+                             ContentStore contentStore,
+                             BlockOperationLog blockOperationLog,
+                             PageEventBroadcaster pageEventBroadcaster,
+                             @Value("${ordering.rebalance.max-key-length:16}") int maxKeyLength,
+                             @Value("${ordering.rebalance.batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.blockRepository = blockRepository;
+        this.contentStore = contentStore;
+        this.blockOperationLog = blockOperationLog;
+        this.pageEventBroadcaster = pageEventBroadcaster;
+        this.maxKeyLength = maxKeyLength;
+        this.batchSize = batchSize;
+    }
+
+    // Called with every newly generated key; cheap unless the key is past the threshold
+    public void checkKey(RankedTable table, UUID scopeId, UUID parentId, String rankKey) {
+        if (rankKey == null || rankKey.length() <= maxKeyLength) {
+            return;
+        }
+        String member = table.name() + "|" + scopeId + "|" + (parentId != null ? parentId : "-");
+        AfterCommit.run(() -> {
+            try {
+                redisTemplate.opsForSet().add(PENDING_KEY, member);
+            } catch (RuntimeException e) {
+                // The next long key written to this group flags it again
+                log.warn("Could not queue rank rebalance for {}: {}", member, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${ordering.rebalance.interval-ms:60000}")
+    public void rebalancePending() {
+        List<String> members;
+        try {
+            members = redisTemplate.opsForSet().pop(PENDING_KEY, batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Rank rebalance queue unavailable: {}", e.getMessage());
+            return;
+        }
+        if (members == null) {
+            return;
+        }
+        for (String member : members) {
+            String[] parts = member.split("\\|");
+            try {
+                RankedTable table = RankedTable.valueOf(parts[0]);
+                UUID scopeId = UUID.fromString(parts[1]);
+                UUID parentId = "-".equals(parts[2]) ? null : UUID.fromString(parts[2]);
+                int rows = transactionTemplate.execute(status -> rebalance(table, scopeId, parentId));
+                log.debug("Rebalanced {} rank keys for {}", rows, member);
+            } catch (RuntimeException e) {
+                log.warn("Rank rebalance failed for {}: {}", member, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rewrites one sibling group with evenly spaced keys. Rows are locked in key
+     * order so concurrent moves into the group wait instead of interleaving.
+     */
+    public int rebalance(RankedTable table, UUID scopeId, UUID parentId) {
+        List<UUID> ids = parentId == null
+                ? jdbcTemplate.queryForList("SELECT id FROM " + table.table + " WHERE " + table.scopeColumn +
+                        " = ? AND parent_id IS NULL ORDER BY rank_key, id FOR UPDATE", UUID.class, scopeId)
+                : jdbcTemplate.queryForList("SELECT id FROM " + table.table +
+                        " WHERE parent_id = ? ORDER BY rank_key, id FOR UPDATE", UUID.class, parentId);
+
+        List<String> keys = RankKeys.evenlySpaced(ids.size());
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            updates.add(new Object[] { keys.get(i), ids.get(i) });
+        }
+        // Order is unchanged, so this is not an edit; see the class comment on versions
+        jdbcTemplate.batchUpdate("UPDATE " + table.table + " SET rank_key = ? WHERE id = ?", updates);
+        if (table == RankedTable.BLOCKS) {
+            // Cached block lists carry the old keys
+            cacheManager.getCache(CacheConfig.PAGE_BLOCKS).evict(scopeId);
+            announceBlockMoves(scopeId, ids);
+        }
+        return ids.size();
+    }
+
+    // Every re-keyed live block is a move as far as the operation log and live viewers are concerned
+    private void announceBlockMoves(UUID pageId, List<UUID> ids) {
+        List<Block> blocks = blockRepository.findAllById(ids).stream()
+                .filter(block -> !block.isArchived())
+                .sorted(Comparator.comparing(Block::getRankKey))
+                .collect(Collectors.toList());
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.BLOCK, blocks);
+        List<BlockDto> dtos = new ArrayList<>(blocks.size());
+        List<BlockOperationLog.Entry> entries = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            BlockDto dto = block.toDto();
+            dto.setContent(contents.get(block.getId()));
+            dtos.add(dto);
+            entries.add(blockOperationLog.state(BlockOperationLog.Op.MOVE, dto, null));
+        }
+        blockOperationLog.append(pageId, entries);
+        for (BlockDto dto : dtos) {
+            pageEventBroadcaster.blockChanged(pageId, BlockEvent.Type.MOVED, dto, null);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.masai.notionclone.ordering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Lexicographic rank keys for sibling ordering. A key is read as a base-62
+ * fraction in [0, 1) whose digits sort in ASCII order, so a new key can always
+ * be generated strictly between two neighbours and an insert or move writes
+ * exactly one row. Keys never end in the zero digit, which keeps room below
+ * every key. Columns holding keys must use the "C" collation.
+ */
+public final class RankKeys {
+
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int MAX_WIDTH = 10;
+
+    private RankKeys() {
+    }
+
+    /**
+     * Returns a key strictly between {@code before} and {@code after}; null means
+     * "no neighbour on that side".
+     */
+    public static String between(String before, String after) {
+        String a = before != null ? before : "";
+        if (after != null && a.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Rank keys out of order: " + before + " >= " + after);
+        }
+        return midpoint(a, after, before == null, after == null);
+    }
+
+    /**
+     * Key for the slot at {@code index} among siblings ordered by key.
+     * {@code window} returns up to two sibling keys starting at the given offset,
+     * {@code lastKey} the greatest sibling key (or null when there are none).
+     */
+    public static String atIndex(Integer index, IntFunction<List<String>> window, Supplier<String> lastKey) {
+        if (index == null) {
+            return between(lastKey.get(), null);
+        }
+        if (index <= 0) {
+            List<String> first = window.apply(0);
+            return between(null, first.isEmpty() ? null : first.get(0));
+        }
+        List<String> around = window.apply(index - 1);
+        if (around.isEmpty()) {
+            return between(lastKey.get(), null);
+        }
+        String before = around.get(0);
+        String after = around.size() > 1 ? around.get(1) : null;
+        // Concurrent inserts can leave equal keys; place after them and let the rebalancer spread them out
+        return between(before, after != null && before.compareTo(after) < 0 ? after : null);
+    }
+
+    /**
+     * {@code count} evenly spaced keys of equal width, used for backfills and rebalancing.
+     */
+    public static List<String> evenlySpaced(int count) {
+        int width = 1;
+        long space = BASE;
+        while (space <= count + 1L && width < MAX_WIDTH) {
+            width++;
+            space *= BASE;
+        }
+        long step = space / (count + 1L);
+
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(encode(i * step, width));
+        }
+        return keys;
+    }
+
+    private static String midpoint(String a, String b, boolean prepend, boolean append) {
+        if (b != null) {
+            // Skip the shared prefix; a is treated as padded with zero digits
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : DIGITS.charAt(0)) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n), prepend, append);
+            }
+        }
+
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            int digit;
+            if (append) {
+                // Appending or prepending: step by one digit instead of halving so repeated ends grow keys slowly
+                digit = digitA + 1;
+            } else if (prepend) {
+                digit = digitB - 1;
+            } else {
+                digit = (digitA + digitB + 1) / 2;
+            }
+            return String.valueOf(DIGITS.charAt(digit));
+        }
+        // Adjacent digits: b's first digit alone works if b has more digits, otherwise go one level deeper
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        if (prepend && b != null) {
+            // Directly below b: take the highest digit one level down so later prepends have room to step
+            return DIGITS.charAt(digitA) + String.valueOf(DIGITS.charAt(BASE - 1));
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null, false, append);
+    }
+
+    private static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int end = width;
+        while (end > 1 && chars[end - 1] == DIGITS.charAt(0)) {
+            end--;
+        }
+        return new String(chars, 0, end);
+    }
+}
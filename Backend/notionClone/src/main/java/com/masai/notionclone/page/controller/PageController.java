@@ -1,19 +1,28 @@
 package com.masai.notionclone.page.controller;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.dto.PagedResponse;
+import com.masai.notionclone.page.dto.ContentPatchRequest;
 import com.masai.notionclone.page.dto.CreatePageRequest;
+import com.masai.notionclone.page.dto.DuplicatePageRequest;
 import com.masai.notionclone.page.dto.MovePageRequest;
 import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.page.dto.PageTreeNode;
 import com.masai.notionclone.page.dto.UpdatePageRequest;
 import com.masai.notionclone.page.service.PageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,11 +36,30 @@ public class PageController {
     private final PageService pageService;
 
     @GetMapping("/workspaces/{workspaceId}/pages")
-    @Operation(summary = "Get all pages in a workspace")
-    public ResponseEntity<List<PageDto>> getWorkspacePages(
+    @Operation(summary = "Get pages in a workspace, one cursor slice at a time")
+    public ResponseEntity<PagedResponse<PageDto>> getWorkspacePages(
             @PathVariable UUID workspaceId,
-            @RequestParam(required = false) UUID parentId) {
-        return ResponseEntity.ok(pageService.getWorkspacePages(workspaceId, parentId));
+            @RequestParam(required = false) UUID parentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(pageService.getWorkspacePages(workspaceId, parentId, cursor, size));
+    }
+
+    @GetMapping("/workspaces/{workspaceId}/pages/tree")
+    @Operation(summary = "Get the whole page hierarchy of a workspace")
+    public ResponseEntity<List<PageTreeNode>> getPageTree(@PathVariable UUID workspaceId, WebRequest webRequest) {
+        // Version is read before the tree so a concurrent change can only make the ETag older, never newer
+        Long version = pageService.getPageTreeVersion(workspaceId);
+        String eTag = version != null ? "\"" + workspaceId + "-" + version + "\"" : null;
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(pageService.getPageTree(workspaceId));
     }
 
     @GetMapping("/pages/{pageId}")
@@ -40,6 +68,14 @@ public class PageController {
         return ResponseEntity.ok(pageService.getPageById(pageId));
     }
 
+    @GetMapping("/pages/{pageId}/content")
+    @Operation(summary = "Stream the raw content of a page")
+    public ResponseEntity<StreamingResponseBody> getPageContent(@PathVariable UUID pageId) {
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(pageService.getPageContent(pageId));
+    }
+
     @PostMapping("/workspaces/{workspaceId}/pages")
     @Operation(summary = "Create a new page")
     public ResponseEntity<PageDto> createPage(
@@ -52,6 +88,18 @@ public class PageController {
                 .body(createdPage);
     }
 
+    @PostMapping("/pages/{pageId}/duplicate")
+    @Operation(summary = "Duplicate a page with its subpages and blocks",
+               description = "Also instantiates templates: pass the target workspace and parent")
+    public ResponseEntity<PageDto> duplicatePage(
+            @PathVariable UUID pageId,
+            @RequestBody(required = false) DuplicatePageRequest request) {
+        PageDto copy = pageService.duplicatePage(pageId, request != null ? request : new DuplicatePageRequest());
+        return ResponseEntity
+                .created(URI.create("/api/pages/" + copy.getId()))
+                .body(copy);
+    }
+
     @PutMapping("/pages/{pageId}")
     @Operation(summary = "Update a page")
     public ResponseEntity<PageDto> updatePage(
@@ -60,11 +108,34 @@ public class PageController {
         return ResponseEntity.ok(pageService.updatePage(pageId, request));
     }
 
+    @PatchMapping("/pages/{pageId}/content")
+    @Operation(summary = "Apply a text delta to the page content")
+    public ResponseEntity<PageDto> patchPageContent(
+            @PathVariable UUID pageId,
+            @Valid @RequestBody ContentPatchRequest request) {
+        return ResponseEntity.ok(pageService.patchPageContent(pageId, request));
+    }
+
     @DeleteMapping("/pages/{pageId}")
-    @Operation(summary = "Delete a page (soft delete)")
-    public ResponseEntity<Void> deletePage(@PathVariable UUID pageId) {
-        pageService.deletePage(pageId);
-        return ResponseEntity.noContent().build();
+    @Operation(summary = "Delete a page and its subpages (soft delete)",
+               description = "204 when done; 202 with a job to poll for very large subtrees")
+    public ResponseEntity<ArchiveJobDto> deletePage(@PathVariable UUID pageId) {
+        return archiveResponse(pageService.deletePage(pageId));
+    }
+
+    @PostMapping("/pages/{pageId}/restore")
+    @Operation(summary = "Restore an archived page and the subtree archived with it")
+    public ResponseEntity<ArchiveJobDto> restorePage(@PathVariable UUID pageId) {
+        return archiveResponse(pageService.restorePage(pageId));
+    }
+
+    private ResponseEntity<ArchiveJobDto> archiveResponse(ArchiveJobDto job) {
+        if (job == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/archive-jobs/" + job.getId()))
+                .body(job);
     }
 
     @PostMapping("/pages/{pageId}/move")
@@ -82,8 +153,10 @@ public class PageController {
     }
 
     @GetMapping("/favorites")
-    @Operation(summary = "Get all favorite pages for current user")
-    public ResponseEntity<List<PageDto>> getFavoritePages() {
-        return ResponseEntity.ok(pageService.getFavoritePages());
+    @Operation(summary = "Get favorite pages for current user, newest first")
+    public ResponseEntity<PagedResponse<PageDto>> getFavoritePages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(pageService.getFavoritePages(cursor, size));
     }
 }
@@ -0,0 +1,18 @@
+package com.masai.notionclone.page.dto;
+
+import com.masai.notionclone.content.DeltaOp;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+public class ContentPatchRequest {
+    // Version of the page the delta was computed against
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotEmpty(message = "At least one op is required")
+    private List<DeltaOp> ops;
+}
@@ -0,0 +1,14 @@
+package com.masai.notionclone.page.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+// All fields optional: without them the copy lands next to the source, under the same title
+@Data
+public class DuplicatePageRequest {
+    // Target workspace, e.g. when instantiating a template kept in another workspace
+    private UUID workspaceId;
+    private UUID parentId;
+    private String title;
+}
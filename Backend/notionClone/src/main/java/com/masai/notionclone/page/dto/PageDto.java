@@ -29,4 +29,5 @@ public class PageDto {
     private Long createdBy;
     private Long updatedBy;
     private String wsUid;
+    private Long version;
 }
@@ -0,0 +1,51 @@
+package com.masai.notionclone.page.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.Getter;
+
+/**
+ * Page row without its content, selected through a JPQL constructor expression
+ * so listings never read the content TEXT column.
+ */
+@Getter
+public class PageSummary {
+    private final UUID id;
+    private final UUID workspaceId;
+    private final UUID parentId;
+    private final String title;
+    private final String icon;
+    private final String rankKey;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long createdBy;
+    private final Long updatedBy;
+
+    public PageSummary(UUID id, UUID workspaceId, UUID parentId, String title, String icon, String rankKey,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, Long createdBy, Long updatedBy) {
+        this.id = id;
+        this.workspaceId = workspaceId;
+        this.parentId = parentId;
+        this.title = title;
+        this.icon = icon;
+        this.rankKey = rankKey;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.createdBy = createdBy;
+        this.updatedBy = updatedBy;
+    }
+
+    public PageDto toDto() {
+        PageDto dto = new PageDto();
+        dto.setId(this.id);
+        dto.setTitle(this.title);
+        dto.setIcon(this.icon);
+        dto.setWsUid(this.workspaceId.toString());
+        dto.setCreatedAt(this.createdAt);
+        dto.setUpdatedAt(this.updatedAt);
+        dto.setCreatedBy(this.createdBy);
+        dto.setUpdatedBy(this.updatedBy);
+        return dto;
+    }
+}
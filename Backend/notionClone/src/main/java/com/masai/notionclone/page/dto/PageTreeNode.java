@@ -0,0 +1,32 @@
+package com.masai.notionclone.page.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+
+/**
+ * Compact sidebar node. Built straight from a JPQL constructor expression so
+ * the tree query never materializes Page entities.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class PageTreeNode {
+    private final UUID id;
+    @JsonIgnore
+    private final UUID parentId;
+    private final String title;
+    private final String icon;
+    private final List<PageTreeNode> children = new ArrayList<>();
+
+    public PageTreeNode(UUID id, UUID parentId, String title, String icon) {
+        this.id = id;
+        this.parentId = parentId;
+        this.title = title;
+        this.icon = icon;
+    }
+}
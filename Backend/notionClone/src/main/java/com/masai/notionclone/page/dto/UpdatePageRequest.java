@@ -12,4 +12,7 @@ public class UpdatePageRequest {
     private String icon;
     private String coverImage;
     private String content;
+    
+    // Optional: reject the update with 409 unless the page is still at this version
+    private Long version;
 }
@@ -1,7 +1,6 @@
 package com.masai.notionclone.page.model;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.UUID;
 
 import javax.persistence.Column;
@@ -13,10 +12,12 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.masai.notionclone.content.ExternalizableContent;
 import com.masai.notionclone.model.User;
 import com.masai.notionclone.page.dto.PageDto;
 import com.masai.notionclone.workspace.model.Workspace;
@@ -26,7 +27,7 @@ import lombok.Data;
 @Data
 @Entity
 @Table(name = "pages")
-public class Page {
+public class Page implements ExternalizableContent {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -38,9 +39,13 @@ public class Page {
     private String icon;
     private String coverImage;
 
+    // Inline body; null when the body is over the threshold and kept in content_blobs
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    @Column(name = "content_external", nullable = false, columnDefinition = "boolean default false")
+    private boolean contentExternal;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Page parent;
@@ -49,9 +54,17 @@ public class Page {
     @JoinColumn(name = "workspace_id", nullable = false)
     private Workspace workspace;
 
-    private int position;
+    // Lexicographic sibling order, see RankKeys; "C" collation so the database sorts like String.compareTo
+    @Column(name = "rank_key", columnDefinition = "text COLLATE \"C\"")
+    private String rankKey;
+
     private boolean archived = false;
 
+    // Optimistic lock; clients send it back as the base of their edits
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -67,8 +80,6 @@ public class Page {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by", nullable = false)
     private User updatedBy;
-    
-    private Boolean favorite = false; 
 
     public PageDto toDto() {
         PageDto dto = new PageDto();
@@ -81,9 +92,9 @@ public class Page {
 //        dto.setPosition(this.position);
 //        dto.setArchived(this.archived);
         dto.setWsUid(this.workspace.getId().toString());
-        dto.setFavorite(this.getFavorite());
-        dto.setCreatedAt(LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
-        dto.setUpdatedAt(LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
+        dto.setVersion(this.version);
+        dto.setCreatedAt(this.createdAt);
+        dto.setUpdatedAt(this.updatedAt);
         dto.setCreatedBy(this.createdBy != null ? this.createdBy.getId() : null);
         dto.setUpdatedBy(this.updatedBy != null ? this.updatedBy.getId() : null);
         return dto;
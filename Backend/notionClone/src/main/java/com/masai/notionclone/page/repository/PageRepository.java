@@ -1,50 +1,97 @@
 package com.masai.notionclone.page.repository;
 
+import com.masai.notionclone.page.dto.PageSummary;
+import com.masai.notionclone.page.dto.PageTreeNode;
 import com.masai.notionclone.page.model.Page;
 import com.masai.notionclone.workspace.model.Workspace;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PageRepository extends JpaRepository<Page, UUID> {
+    
+    // Summary columns only; p.parent.id and friends read the FK columns without joining
+    String PAGE_SUMMARY = "new com.masai.notionclone.page.dto.PageSummary(p.id, p.workspace.id, p.parent.id, " +
+            "p.title, p.icon, p.rankKey, p.createdAt, p.updatedAt, p.createdBy.id, p.updatedBy.id)";
+    
 	List<Page> findAllByCreatedById(Long userId);
     
-    List<Page> findByWorkspaceIdAndParentIdAndArchivedFalseOrderByPositionAsc(UUID workspaceId, UUID parentId);
+    List<Page> findByWorkspaceIdAndParentIdAndArchivedFalseOrderByRankKeyAscIdAsc(UUID workspaceId, UUID parentId);
+    
+    List<Page> findByWorkspaceIdAndArchivedFalseOrderByRankKeyAscIdAsc(UUID workspaceId);
+    
+    // Keyset slices: rows strictly after (afterKey, afterId) in (rank key, id) order, limited by the pageable
+    @Query("SELECT " + PAGE_SUMMARY + " FROM Page p WHERE p.workspace.id = :workspaceId AND p.archived = false " +
+           "AND (p.rankKey > :afterKey OR (p.rankKey = :afterKey AND p.id > :afterId)) ORDER BY p.rankKey, p.id")
+    List<PageSummary> findWorkspacePageSlice(@Param("workspaceId") UUID workspaceId, @Param("afterKey") String afterKey,
+                                      @Param("afterId") UUID afterId, Pageable pageable);
+    
+    @Query("SELECT " + PAGE_SUMMARY + " FROM Page p WHERE p.workspace.id = :workspaceId AND p.parent.id = :parentId " +
+           "AND p.archived = false AND (p.rankKey > :afterKey OR (p.rankKey = :afterKey AND p.id > :afterId)) " +
+           "ORDER BY p.rankKey, p.id")
+    List<PageSummary> findChildPageSlice(@Param("workspaceId") UUID workspaceId, @Param("parentId") UUID parentId,
+                                  @Param("afterKey") String afterKey, @Param("afterId") UUID afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Page p JOIN FETCH p.workspace WHERE p.createdBy.id = :userId AND p.id > :afterId ORDER BY p.id")
+    List<Page> findUserPageSlice(@Param("userId") Long userId, @Param("afterId") UUID afterId, Pageable pageable);
     
-    List<Page> findByWorkspaceIdAndArchivedFalseOrderByPositionAsc(UUID workspaceId);
+    @Query("SELECT " + PAGE_SUMMARY + " FROM Page p WHERE p.id IN :ids")
+    List<PageSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
     
     Optional<Page> findByIdAndArchivedFalse(UUID id);
+
+    // Row lock so the base-version check and the write of a content patch are atomic
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Page p WHERE p.id = :id AND p.archived = false")
+    Optional<Page> findByIdForUpdate(@Param("id") UUID id);
     
     boolean existsByWorkspaceAndId(Workspace workspace, UUID id);
     
-    @Query("SELECT MAX(p.position) FROM Page p WHERE p.workspace.id = :workspaceId AND p.parent.id = :parentId")
-    Integer findMaxPositionByWorkspaceAndParent(@Param("workspaceId") UUID workspaceId, 
-                                               @Param("parentId") UUID parentId);
+    @Query("SELECT MAX(p.rankKey) FROM Page p WHERE p.workspace.id = :workspaceId AND p.parent IS NULL")
+    String findMaxRootRankKey(@Param("workspaceId") UUID workspaceId);
+    
+    @Query("SELECT MAX(p.rankKey) FROM Page p WHERE p.parent.id = :parentId")
+    String findMaxChildRankKey(@Param("parentId") UUID parentId);
+    
+    // Two neighbouring sibling keys starting at :offset, for placing a page at an index
+    @Query(value = "SELECT rank_key FROM pages WHERE workspace_id = :workspaceId AND parent_id IS NULL " +
+                   "AND archived = false AND id <> :excludeId ORDER BY rank_key, id LIMIT 2 OFFSET :offset",
+           nativeQuery = true)
+    List<String> findRootRankKeyWindow(@Param("workspaceId") UUID workspaceId, @Param("excludeId") UUID excludeId,
+                                       @Param("offset") int offset);
     
-    @Modifying
-    @Query("UPDATE Page p SET p.position = p.position + 1 " +
-           "WHERE p.workspace.id = :workspaceId AND p.parent.id = :parentId AND p.position >= :position")
-    void incrementPositionsAfter(@Param("workspaceId") UUID workspaceId,
-                                @Param("parentId") UUID parentId,
-                                @Param("position") int position);
+    @Query(value = "SELECT rank_key FROM pages WHERE parent_id = :parentId " +
+                   "AND archived = false AND id <> :excludeId ORDER BY rank_key, id LIMIT 2 OFFSET :offset",
+           nativeQuery = true)
+    List<String> findChildRankKeyWindow(@Param("parentId") UUID parentId, @Param("excludeId") UUID excludeId,
+                                        @Param("offset") int offset);
     
-    @Query("SELECT p FROM Page p JOIN UserPageFavorite upf ON p.id = upf.page.id " +
+    // Walks up from :pageId; true when :rootId is the page itself or one of its ancestors
+    @Query(value = "WITH RECURSIVE up AS (SELECT id, parent_id FROM pages WHERE id = :pageId " +
+                   "UNION SELECT p.id, p.parent_id FROM pages p JOIN up u ON p.id = u.parent_id) " +
+                   "SELECT EXISTS (SELECT 1 FROM up WHERE id = :rootId)",
+           nativeQuery = true)
+    boolean isInSubtree(@Param("pageId") UUID pageId, @Param("rootId") UUID rootId);
+    
+    @Query("SELECT p FROM UserPageFavorite upf JOIN upf.page p JOIN FETCH p.workspace " +
            "WHERE upf.user.id = :userId AND p.archived = false ORDER BY upf.favoritedAt DESC")
-    List<Page> findFavoritesByUserId(@Param("userId") UUID userId);
-    
-    @Query("SELECT COUNT(p) > 0 FROM Page p WHERE p.workspace.id = :workspaceId " +
-           "AND p.parent.id = :parentId AND p.position = :position")
-    boolean existsByWorkspaceAndParentAndPosition(@Param("workspaceId") UUID workspaceId,
-                                                 @Param("parentId") UUID parentId,
-                                                 @Param("position") int position);
-                                                 
+    List<Page> findFavoritesByUserId(@Param("userId") Long userId);
+    
+    // p.parent.id reads the FK column directly, so this is a single scan of pages with no joins
+    @Query("SELECT new com.masai.notionclone.page.dto.PageTreeNode(p.id, p.parent.id, p.title, p.icon) " +
+           "FROM Page p WHERE p.workspace.id = :workspaceId AND p.archived = false ORDER BY p.rankKey, p.id")
+    List<PageTreeNode> findTreeNodesByWorkspaceId(@Param("workspaceId") UUID workspaceId);
+    
     @Query("SELECT p.workspace.id FROM Page p WHERE p.id = :pageId")
     UUID findWorkspaceIdByPageId(@Param("pageId") UUID pageId);
 }
@@ -1,8 +1,10 @@
 package com.masai.notionclone.page.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -30,9 +32,20 @@ public interface UserPageFavoriteRepository extends JpaRepository<UserPageFavori
     @Query("SELECT upf.page FROM UserPageFavorite upf WHERE upf.user.id = :userId")
     List<Page> findFavoritePagesByUserId(@Param("userId") Long userId);
     
+    @Query("SELECT upf.page.id FROM UserPageFavorite upf WHERE upf.user.id = :userId")
+    List<UUID> findFavoritePageIdsByUserId(@Param("userId") Long userId);
+    
     @Query("SELECT upf FROM UserPageFavorite upf WHERE upf.user.id = :userId")
     List<UserPageFavorite> findFavoritesByUserId(@Param("userId") Long userId);
     
+    // Newest first; rows strictly before (beforeAt, beforeId). The page stays a proxy, its summary is loaded separately
+    @Query("SELECT upf FROM UserPageFavorite upf JOIN upf.page p " +
+           "WHERE upf.user.id = :userId AND p.archived = false " +
+           "AND (upf.favoritedAt < :beforeAt OR (upf.favoritedAt = :beforeAt AND p.id < :beforeId)) " +
+           "ORDER BY upf.favoritedAt DESC, p.id DESC")
+    List<UserPageFavorite> findFavoriteSlice(@Param("userId") Long userId, @Param("beforeAt") LocalDateTime beforeAt,
+                                             @Param("beforeId") UUID beforeId, Pageable pageable);
+    
     @Modifying
     @Query("DELETE FROM UserPageFavorite upf WHERE upf.page.id = :pageId")
     void deleteAllByPageId(@Param("pageId") UUID pageId);
@@ -0,0 +1,120 @@
+package com.masai.notionclone.page.service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.page.repository.UserPageFavoriteRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user favorite page ids, kept as a Redis set so listings resolve every
+ * page's favorite flag with one round trip instead of one query per page.
+ * The set always holds a marker member so an empty favorites list is still
+ * a cache hit.
+ */
+@Slf4j
+@Component
+public class FavoriteCache {
+
+    private static final String KEY_PREFIX = "favorites:";
+    private static final String MARKER = "-";
+
+    // Only touch sets that are already loaded; a missing key is rebuilt from the database on next read
+    private static final RedisScript<Long> UPDATE_IF_LOADED = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then\n" +
+            "  redis.call(ARGV[1], KEYS[1], ARGV[2])\n" +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[3])\n" +
+            "  return 1\n" +
+            "end\n" +
+            "return 0",
+            Long.class);
+
+    private final UserPageFavoriteRepository userPageFavoriteRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration ttl;
+
+    public FavoriteCache(UserPageFavoriteRepository userPageFavoriteRepository,
+                         RedisTemplate<String, String> redisTemplate,
+                         @Value("${cache.favorites.ttl-seconds:3600}") long ttlSeconds) {
+        this.userPageFavoriteRepository = userPageFavoriteRepository;
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public Set<UUID> getFavoritePageIds(Long userId) {
+        String key = KEY_PREFIX + userId;
+        try {
+            Set<String> members = redisTemplate.opsForSet().members(key);
+            if (members != null && !members.isEmpty()) {
+                Set<UUID> ids = new HashSet<>(members.size());
+                for (String member : members) {
+                    if (!MARKER.equals(member)) {
+                        ids.add(UUID.fromString(member));
+                    }
+                }
+                return ids;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Favorites cache unavailable, reading from database: {}", e.getMessage());
+            return new HashSet<>(userPageFavoriteRepository.findFavoritePageIdsByUserId(userId));
+        }
+
+        List<UUID> ids = userPageFavoriteRepository.findFavoritePageIdsByUserId(userId);
+        load(key, ids);
+        return new HashSet<>(ids);
+    }
+
+    public boolean isFavorite(Long userId, UUID pageId) {
+        return getFavoritePageIds(userId).contains(pageId);
+    }
+
+    // Called by the toggle path; applied after commit so readers never see an uncommitted favorite
+    public void added(Long userId, UUID pageId) {
+        AfterCommit.run(() -> update(userId, "SADD", pageId));
+    }
+
+    public void removed(Long userId, UUID pageId) {
+        AfterCommit.run(() -> update(userId, "SREM", pageId));
+    }
+
+    private void load(String key, List<UUID> ids) {
+        String[] members = new String[ids.size() + 1];
+        members[0] = MARKER;
+        for (int i = 0; i < ids.size(); i++) {
+            members[i + 1] = ids.get(i).toString();
+        }
+        try {
+            redisTemplate.opsForSet().add(key, members);
+            redisTemplate.expire(key, ttl);
+        } catch (RuntimeException e) {
+            log.warn("Could not cache favorites under {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void update(Long userId, String command, UUID pageId) {
+        String key = KEY_PREFIX + userId;
+        try {
+            redisTemplate.execute(UPDATE_IF_LOADED, List.of(key),
+                    command, pageId.toString(), String.valueOf(ttl.toMillis()));
+        } catch (RuntimeException e) {
+            // Can't apply the change, so make sure the next read goes to the database
+            log.warn("Could not update favorites under {}: {}", key, e.getMessage());
+            try {
+                redisTemplate.delete(key);
+            } catch (RuntimeException ignored) {
+                // Redis is down; the TTL bounds how long a stale set can survive
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.masai.notionclone.page.service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.masai.notionclone.exception.BadRequestException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copies a page subtree with its blocks and out-of-row bodies. Only ids are
+ * read into memory: new ids are assigned here and the old -> new mapping is
+ * sent back as parallel uuid arrays, so each table is copied by one
+ * INSERT ... SELECT and no content makes the round trip. Self-referencing
+ * parent keys are checked at the end of each statement, so row order doesn't
+ * matter.
+ */
+@Slf4j
+@Component
+public class PageDuplicator {
+
+    private static final String MAP = "unnest(?::uuid[], ?::uuid[])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxRows;
+
+    public PageDuplicator(JdbcTemplate jdbcTemplate,
+                          @Value("${duplicate.max-rows:50000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Copies {@code sourceId} and its live descendants under {@code parentId}
+     * (null for top level) in {@code workspaceId}. Returns the id of the copy.
+     */
+    public UUID duplicate(UUID sourceId, UUID workspaceId, UUID parentId, String rankKey, String title, Long userId) {
+        List<UUID> pageIds = jdbcTemplate.queryForList(
+                "WITH RECURSIVE tree AS (" +
+                "SELECT id FROM pages WHERE id = ? " +
+                "UNION " +
+                "SELECT c.id FROM pages c JOIN tree t ON c.parent_id = t.id WHERE c.archived = false) " +
+                "SELECT id FROM tree LIMIT ?",
+                UUID.class, sourceId, maxRows + 1);
+        List<UUID> blockIds = pageIds.size() > maxRows ? List.of() : jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM blocks WHERE page_id = ANY(?) AND archived = false LIMIT ?");
+            ps.setArray(1, uuidArray(con, pageIds));
+            ps.setInt(2, maxRows + 1);
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+        if (pageIds.size() + blockIds.size() > maxRows) {
+            throw new BadRequestException("Page is too large to duplicate");
+        }
+
+        Map<UUID, UUID> pageMap = remap(pageIds);
+        Map<UUID, UUID> blockMap = remap(blockIds);
+        UUID copyId = pageMap.get(sourceId);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO pages (id, title, icon, cover_image, content, content_external, parent_id, " +
+                    "workspace_id, rank_key, archived, created_at, updated_at, created_by, updated_by, version) " +
+                    "SELECT m.new_id, CASE WHEN p.id = ? THEN ? ELSE p.title END, p.icon, p.cover_image, " +
+                    "p.content, p.content_external, CASE WHEN p.id = ? THEN CAST(? AS uuid) ELSE pm.new_id END, " +
+                    "?, CASE WHEN p.id = ? THEN ? ELSE p.rank_key END, false, now(), now(), ?, ?, 0 " +
+                    "FROM " + MAP + " AS m(old_id, new_id) " +
+                    "JOIN pages p ON p.id = m.old_id " +
+                    "LEFT JOIN " + MAP + " AS pm(old_id, new_id) ON pm.old_id = p.parent_id");
+            int i = 0;
+            ps.setObject(++i, sourceId);
+            ps.setString(++i, title);
+            ps.setObject(++i, sourceId);
+            ps.setObject(++i, parentId);
+            ps.setObject(++i, workspaceId);
+            ps.setObject(++i, sourceId);
+            ps.setString(++i, rankKey);
+            ps.setLong(++i, userId);
+            ps.setLong(++i, userId);
+            i = bindMap(con, ps, i, pageMap);
+            bindMap(con, ps, i, pageMap);
+            return ps;
+        });
+
+        if (!blockMap.isEmpty()) {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO blocks (id, type, content, content_external, page_id, parent_id, rank_key, " +
+                        "archived, created_at, updated_at, created_by, updated_by, version) " +
+                        "SELECT m.new_id, b.type, b.content, b.content_external, pm.new_id, bm.new_id, b.rank_key, " +
+                        "false, now(), now(), ?, ?, 0 " +
+                        "FROM " + MAP + " AS m(old_id, new_id) " +
+                        "JOIN blocks b ON b.id = m.old_id " +
+                        "JOIN " + MAP + " AS pm(old_id, new_id) ON pm.old_id = b.page_id " +
+                        "LEFT JOIN " + MAP + " AS bm(old_id, new_id) ON bm.old_id = b.parent_id");
+                int i = 0;
+                ps.setLong(++i, userId);
+                ps.setLong(++i, userId);
+                i = bindMap(con, ps, i, blockMap);
+                i = bindMap(con, ps, i, pageMap);
+                bindMap(con, ps, i, blockMap);
+                return ps;
+            });
+        }
+
+        copyBlobs("PAGE", pageMap);
+        copyBlobs("BLOCK", blockMap);
+        log.debug("Duplicated page {} ({} pages, {} blocks) in {} ms", sourceId, pageMap.size(), blockMap.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return copyId;
+    }
+
+    // Compressed bodies are copied as-is; they are keyed by owner id only
+    private void copyBlobs(String ownerType, Map<UUID, UUID> idMap) {
+        if (idMap.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO content_blobs (owner_type, owner_id, raw_length, data) " +
+                    "SELECT c.owner_type, m.new_id, c.raw_length, c.data " +
+                    "FROM " + MAP + " AS m(old_id, new_id) " +
+                    "JOIN content_blobs c ON c.owner_type = ? AND c.owner_id = m.old_id");
+            int i = bindMap(con, ps, 0, idMap);
+            ps.setString(i + 1, ownerType);
+            return ps;
+        });
+    }
+
+    private static Map<UUID, UUID> remap(List<UUID> ids) {
+        Map<UUID, UUID> map = new HashMap<>(ids.size() * 2);
+        for (UUID id : ids) {
+            map.put(id, UUID.randomUUID());
+        }
+        return map;
+    }
+
+    // Binds the mapping as two parallel arrays; returns the last parameter index used
+    private static int bindMap(Connection con, PreparedStatement ps, int index, Map<UUID, UUID> idMap) throws SQLException {
+        Object[] oldIds = new Object[idMap.size()];
+        Object[] newIds = new Object[idMap.size()];
+        int i = 0;
+        for (Map.Entry<UUID, UUID> entry : idMap.entrySet()) {
+            oldIds[i] = entry.getKey();
+            newIds[i] = entry.getValue();
+            i++;
+        }
+        ps.setArray(index + 1, con.createArrayOf("uuid", oldIds));
+        ps.setArray(index + 2, con.createArrayOf("uuid", newIds));
+        return index + 2;
+    }
+
+    private static Array uuidArray(Connection con, List<UUID> ids) throws SQLException {
+        return con.createArrayOf("uuid", ids.toArray());
+    }
+}
@@ -1,32 +1,52 @@
 package com.masai.notionclone.page.service;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.dto.PagedResponse;
+import com.masai.notionclone.page.dto.ContentPatchRequest;
 import com.masai.notionclone.page.dto.CreatePageRequest;
+import com.masai.notionclone.page.dto.DuplicatePageRequest;
 import com.masai.notionclone.page.dto.MovePageRequest;
 import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.page.dto.PageTreeNode;
 import com.masai.notionclone.page.dto.UpdatePageRequest;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 import java.util.UUID;
 
 public interface PageService {
     
-    List<PageDto> getWorkspacePages(UUID workspaceId, UUID parentId);
+    PagedResponse<PageDto> getWorkspacePages(UUID workspaceId, UUID parentId, String cursor, Integer size);
     
     PageDto getPageById(UUID pageId);
     
+    StreamingResponseBody getPageContent(UUID pageId);
+    
     PageDto createPage(CreatePageRequest request);
     
+    PageDto duplicatePage(UUID pageId, DuplicatePageRequest request);
+    
     PageDto updatePage(UUID pageId, UpdatePageRequest request);
     
-    void deletePage(UUID pageId);
+    PageDto patchPageContent(UUID pageId, ContentPatchRequest request);
+    
+    // Null when the whole subtree was archived in place, otherwise the job finishing it
+    ArchiveJobDto deletePage(UUID pageId);
+    
+    ArchiveJobDto restorePage(UUID pageId);
     
     PageDto movePage(UUID pageId, MovePageRequest request);
     
     PageDto toggleFavorite(UUID pageId);
     
-    List<PageDto> getFavoritePages();
+    PagedResponse<PageDto> getFavoritePages(String cursor, Integer size);
+    
+    PagedResponse<PageDto> getUserPages(Long userId, String cursor, Integer size);
+    
+    Long getPageTreeVersion(UUID workspaceId);
     
-    List<PageDto> getUserPages(Long userId);
+    List<PageTreeNode> getPageTree(UUID workspaceId);
     
     
 }
@@ -1,25 +1,54 @@
 package com.masai.notionclone.page.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.masai.notionclone.archive.dto.ArchiveJobDto;
+import com.masai.notionclone.archive.service.SubtreeArchiver;
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.content.TextDelta;
+import com.masai.notionclone.dto.KeysetCursor;
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.exception.BadRequestException;
+import com.masai.notionclone.exception.ConflictException;
 import com.masai.notionclone.model.User;
+import com.masai.notionclone.ordering.RankKeyRebalancer;
+import com.masai.notionclone.ordering.RankKeyRebalancer.RankedTable;
+import com.masai.notionclone.ordering.RankKeys;
+import com.masai.notionclone.page.dto.ContentPatchRequest;
 import com.masai.notionclone.page.dto.CreatePageRequest;
+import com.masai.notionclone.page.dto.DuplicatePageRequest;
 import com.masai.notionclone.page.dto.MovePageRequest;
 import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.page.dto.PageSummary;
+import com.masai.notionclone.page.dto.PageTreeNode;
 import com.masai.notionclone.page.dto.UpdatePageRequest;
 import com.masai.notionclone.page.model.Page;
+import com.masai.notionclone.page.model.UserPageFavorite;
 import com.masai.notionclone.page.repository.PageRepository;
 import com.masai.notionclone.page.repository.UserPageFavoriteRepository;
 import com.masai.notionclone.service.contextService;
 import com.masai.notionclone.workspace.model.Workspace;
 import com.masai.notionclone.workspace.repository.WorkspaceMemberRepository;
 import com.masai.notionclone.workspace.repository.WorkspaceRepository;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,71 +56,152 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class PageServiceImpl implements PageService {
 
+    // Stands in for "no row to exclude" in the sibling window queries
+    private static final UUID NO_PAGE = new UUID(0L, 0L);
+
     private final PageRepository pageRepository;
     private final WorkspaceRepository workspaceRepository;
     private final WorkspaceMemberRepository workspaceMemberRepository;
     private final UserPageFavoriteRepository userPageFavoriteRepository;
     private final contextService contextService;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final FavoriteCache favoriteCache;
+    private final PageTreeVersions pageTreeVersions;
+    private final RankKeyRebalancer rankKeyRebalancer;
+    private final Pagination pagination;
+    private final ContentStore contentStore;
+    private final CacheManager cacheManager;
+    private final SubtreeArchiver subtreeArchiver;
+    private final PageDuplicator pageDuplicator;
 
     @Override
     @Transactional(readOnly = true)
-    public List<PageDto> getWorkspacePages(UUID workspaceId, UUID parentId) {
-        User currentUser = contextService.getCurrentUser();
-        verifyWorkspaceAccess(workspaceId, currentUser);
+    public PagedResponse<PageDto> getWorkspacePages(UUID workspaceId, UUID parentId, String cursor, Integer size) {
+        Long currentUserId = contextService.getCurrentUserId();
+        verifyWorkspaceAccess(workspaceId, currentUserId);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pagination.resolveSize(size);
 
-        List<Page> pages = parentId == null 
-            ? pageRepository.findByWorkspaceIdAndArchivedFalseOrderByPositionAsc(workspaceId)
-            : pageRepository.findByWorkspaceIdAndParentIdAndArchivedFalseOrderByPositionAsc(workspaceId, parentId);
+        // Every rank key sorts after the empty string, so no cursor means "from the start"
+        String afterKey = after != null ? after.getKey() : "";
+        UUID afterId = after != null ? after.getId() : KeysetCursor.MIN_ID;
+        List<PageSummary> pages = parentId == null 
+            ? pageRepository.findWorkspacePageSlice(workspaceId, afterKey, afterId, PageRequest.of(0, pageSize + 1))
+            : pageRepository.findChildPageSlice(workspaceId, parentId, afterKey, afterId, PageRequest.of(0, pageSize + 1));
 
-        return pages.stream()
-                .map(page -> {
+        // One lookup for the whole listing instead of one query per page
+        Set<UUID> favoriteIds = favoriteCache.getFavoritePageIds(currentUserId);
+        return PagedResponse.fromSlice(pages, pageSize,
+                page -> KeysetCursor.encode(page.getRankKey(), page.getId()),
+                page -> {
                     PageDto dto = page.toDto();
-                    dto.setFavorite(userPageFavoriteRepository.isPageFavoritedByUser(currentUser.getId(), page.getId()));
+                    dto.setFavorite(favoriteIds.contains(page.getId()));
                     return dto;
-                })
-                .collect(Collectors.toList());
+                });
     }
 
     @Override
     @Transactional(readOnly = true)
     public PageDto getPageById(UUID pageId) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = pageRepository.findByIdAndArchivedFalse(pageId)
-                .orElseThrow(() -> new BadRequestException("Page not found"));
-
-        verifyWorkspaceAccess(page.getWorkspace().getId(), currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        // Authorization only needs the page's workspace, so a cache hit never reads the pages table
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (workspaceId == null) {
+            throw new BadRequestException("Page not found");
+        }
+        verifyWorkspaceAccess(workspaceId, currentUserId);
         
-        PageDto dto = page.toDto();
-        dto.setFavorite(userPageFavoriteRepository.isPageFavoritedByUser(currentUser.getId(), pageId));
+        // Concurrent misses on a hot page share one load
+        PageDto cached = cacheManager.getCache(CacheConfig.PAGES).get(pageId, () -> {
+            Page page = pageRepository.findByIdAndArchivedFalse(pageId)
+                    .orElseThrow(() -> new BadRequestException("Page not found"));
+            PageDto loaded = page.toDto();
+            loaded.setContent(contentStore.read(ContentOwner.PAGE, page));
+            return loaded;
+        });
+        
+        // Cached instances are shared; the per-user flag goes on a copy
+        PageDto dto = new PageDto();
+        BeanUtils.copyProperties(cached, dto);
+        dto.setFavorite(favoriteCache.isFavorite(currentUserId, pageId));
         return dto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody getPageContent(UUID pageId) {
+        // Access is checked here, on the request thread; the body is written later on an async thread
+        Page page = getPageIfHasAccess(pageId, contextService.getCurrentUserId());
+        return out -> contentStore.streamTo(ContentOwner.PAGE, page, out);
+    }
+
     @Override
     @Transactional
     public PageDto createPage(CreatePageRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Workspace workspace = getWorkspaceIfMember(request.getWorkspaceId(), currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Workspace workspace = getWorkspaceIfMember(request.getWorkspaceId(), currentUserId);
         
         Page page = new Page();
         page.setTitle(request.getTitle());
         page.setIcon(request.getIcon());
 //        page.setCoverImage(request.getCoverImage());
-        page.setContent(request.getContent());
         page.setWorkspace(workspace);
+        User currentUser = contextService.getCurrentUserReference();
         page.setCreatedBy(currentUser);
         page.setUpdatedBy(currentUser);
+        page.setRankKey(rankKeyAt(workspace.getId(), null, NO_PAGE, null));
         
+        // The id is assigned on save but the insert waits for flush, so a large body never lands in the row
         Page savedPage = pageRepository.save(page);
+        contentStore.write(ContentOwner.PAGE, savedPage, request.getContent());
+        pageTreeVersions.bump(workspace.getId());
         PageDto dto = savedPage.toDto();
+        dto.setContent(request.getContent());
         dto.setFavorite(false); // New page can't be favorited yet
         return dto;
     }
 
+    @Override
+    @Transactional
+    public PageDto duplicatePage(UUID pageId, DuplicatePageRequest request) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Page source = getPageIfHasAccess(pageId, currentUserId);
+        UUID sourceWorkspaceId = source.getWorkspace().getId();
+        
+        UUID workspaceId = request.getWorkspaceId() != null ? request.getWorkspaceId() : sourceWorkspaceId;
+        UUID parentId;
+        if (request.getParentId() != null) {
+            Page parent = pageRepository.findByIdAndArchivedFalse(request.getParentId())
+                    .orElseThrow(() -> new BadRequestException("Parent page not found"));
+            if (!parent.getWorkspace().getId().equals(workspaceId)) {
+                throw new BadRequestException("Parent page belongs to a different workspace");
+            }
+            parentId = parent.getId();
+        } else {
+            // In place: next to the source; into another workspace: top level
+            parentId = workspaceId.equals(sourceWorkspaceId) && source.getParent() != null
+                    ? source.getParent().getId() : null;
+        }
+        verifyWorkspaceAccess(workspaceId, currentUserId);
+        
+        String title = request.getTitle() != null ? request.getTitle() : source.getTitle();
+        UUID copyId = pageDuplicator.duplicate(pageId, workspaceId, parentId,
+                rankKeyAt(workspaceId, parentId, NO_PAGE, null), title, currentUserId);
+        pageTreeVersions.bump(workspaceId);
+        
+        Page copy = pageRepository.findById(copyId)
+                .orElseThrow(() -> new IllegalStateException("Duplicated page " + copyId + " not found"));
+        PageDto dto = copy.toDto();
+        dto.setContent(contentStore.read(ContentOwner.PAGE, copy));
+        return dto;
+    }
+
     @Override
     @Transactional
     public PageDto updatePage(UUID pageId, UpdatePageRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfHasAccess(pageId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = getPageIfHasAccess(pageId, currentUserId);
+        checkVersion(page, request.getVersion());
 
         // Update fields if they are not null
         if (request.getTitle() != null) {
@@ -104,44 +214,94 @@ public class PageServiceImpl implements PageService {
             page.setCoverImage(request.getCoverImage());
         }
         if (request.getContent() != null) {
-            page.setContent(request.getContent());
+            contentStore.write(ContentOwner.PAGE, page, request.getContent());
+            touch(page);
         }
         
-        page.setUpdatedBy(currentUser);
+        page.setUpdatedBy(contextService.getCurrentUserReference());
+        
+        // Flushed here so the response carries the new version
+        Page updatedPage = pageRepository.saveAndFlush(page);
+        evictPage(pageId);
+        if (request.getTitle() != null || request.getIcon() != null) {
+            pageTreeVersions.bump(page.getWorkspace().getId());
+        }
+        PageDto dto = updatedPage.toDto();
+        dto.setContent(request.getContent() != null ? request.getContent() : contentStore.read(ContentOwner.PAGE, updatedPage));
+        dto.setFavorite(favoriteCache.isFavorite(currentUserId, pageId));
+        return dto;
+    }
+
+    @Override
+    @Transactional
+    public PageDto patchPageContent(UUID pageId, ContentPatchRequest request) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = pageRepository.findByIdForUpdate(pageId)
+                .orElseThrow(() -> new BadRequestException("Page not found"));
+        verifyWorkspaceAccess(page.getWorkspace().getId(), currentUserId);
+        checkVersion(page, request.getBaseVersion());
+
+        String content = TextDelta.apply(contentStore.read(ContentOwner.PAGE, page), request.getOps());
+        contentStore.write(ContentOwner.PAGE, page, content);
+        touch(page);
+        page.setUpdatedBy(contextService.getCurrentUserReference());
+
+        Page updatedPage = pageRepository.saveAndFlush(page);
+        evictPage(pageId);
         
-        Page updatedPage = pageRepository.save(page);
+        // The client already has the text; it only needs the new version to base its next delta on
         PageDto dto = updatedPage.toDto();
-        dto.setFavorite(userPageFavoriteRepository.isPageFavoritedByUser(currentUser.getId(), pageId));
+        dto.setContent(null);
+        dto.setFavorite(favoriteCache.isFavorite(currentUserId, pageId));
         return dto;
     }
 
     @Override
     @Transactional
-    public void deletePage(UUID pageId) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfHasAccess(pageId, currentUser);
+    public ArchiveJobDto deletePage(UUID pageId) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = getPageIfHasAccess(pageId, currentUserId);
+        UUID workspaceId = page.getWorkspace().getId();
         
-        // Soft delete by marking as archived
-        page.setArchived(true);
-        page.setUpdatedBy(currentUser);
-        pageRepository.save(page);
+        // Soft delete of the whole subtree; favorites are kept (listings skip archived pages) so a restore brings them back
+        ArchiveJobDto job = subtreeArchiver.archivePage(workspaceId, pageId, currentUserId);
+        pageTreeVersions.bump(workspaceId);
+        return job;
+    }
+
+    @Override
+    @Transactional
+    public ArchiveJobDto restorePage(UUID pageId) {
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = pageRepository.findById(pageId)
+                .orElseThrow(() -> new BadRequestException("Page not found"));
+        UUID workspaceId = page.getWorkspace().getId();
+        verifyWorkspaceAccess(workspaceId, currentUserId);
+        if (!page.isArchived()) {
+            throw new BadRequestException("Page is not archived");
+        }
         
-        // Remove from favorites
-        userPageFavoriteRepository.deleteAllByPageId(pageId);
+        ArchiveJobDto job = subtreeArchiver.restorePage(workspaceId, pageId, currentUserId);
+        pageTreeVersions.bump(workspaceId);
+        return job;
     }
 
     @Override
     @Transactional
     public PageDto movePage(UUID pageId, MovePageRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfHasAccess(pageId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = getPageIfHasAccess(pageId, currentUserId);
+        UUID oldParentId = page.getParent() != null ? page.getParent().getId() : null;
         
         // If parent is changing, verify access to new parent
         if (request.getNewParentId() != null) {
             if (!request.getNewParentId().equals(page.getParent() != null ? page.getParent().getId() : null)) {
                 Page newParent = pageRepository.findByIdAndArchivedFalse(request.getNewParentId())
                         .orElseThrow(() -> new BadRequestException("New parent page not found"));
-                verifyWorkspaceAccess(newParent.getWorkspace().getId(), currentUser);
+                verifyWorkspaceAccess(newParent.getWorkspace().getId(), currentUserId);
+                if (pageRepository.isInSubtree(newParent.getId(), pageId)) {
+                    throw new BadRequestException("A page can't be moved under itself or its own descendant");
+                }
                 page.setParent(newParent);
             }
         } else if (page.getParent() != null) {
@@ -149,89 +309,172 @@ public class PageServiceImpl implements PageService {
             page.setParent(null);
         }
         
-        // Handle position changes
-        int newPosition = request.getNewPosition();
-        if (newPosition != page.getPosition()) {
-            // Shift positions of other pages
-            pageRepository.incrementPositionsAfter(
-                    page.getWorkspace().getId(),
-                    request.getNewParentId(),
-                    newPosition);
-            
-            // Set new position
-            page.setPosition(newPosition);
+        // Handle position changes: a new key between the target neighbours, no sibling shifting
+        boolean parentChanged = !Objects.equals(oldParentId, request.getNewParentId());
+        if (request.getNewPosition() != null || parentChanged) {
+            page.setRankKey(rankKeyAt(page.getWorkspace().getId(), request.getNewParentId(), pageId, request.getNewPosition()));
         }
         
-        page.setUpdatedBy(currentUser);
-        Page updatedPage = pageRepository.save(page);
+        page.setUpdatedBy(contextService.getCurrentUserReference());
+        Page updatedPage = pageRepository.saveAndFlush(page);
+        pageTreeVersions.bump(page.getWorkspace().getId());
+        evictPage(pageId);
         
         PageDto dto = updatedPage.toDto();
-        dto.setFavorite(userPageFavoriteRepository.isPageFavoritedByUser(currentUser.getId(), pageId));
+        dto.setFavorite(favoriteCache.isFavorite(currentUserId, pageId));
         return dto;
     }
 
     @Override
+    @Transactional
     public PageDto toggleFavorite(UUID pageId) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfHasAccess(pageId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Page page = getPageIfHasAccess(pageId, currentUserId);
         
-        page.setFavorite(!page.getFavorite());
-        Page p = pageRepository.save(page);
+        // Favorites are per user; the row in user_page_favorites is the source of truth
+        boolean favorite = !userPageFavoriteRepository.isPageFavoritedByUser(currentUserId, pageId);
+        if (favorite) {
+            UserPageFavorite userPageFavorite = new UserPageFavorite();
+            userPageFavorite.setUser(contextService.getCurrentUserReference());
+            userPageFavorite.setPage(page);
+            userPageFavoriteRepository.save(userPageFavorite);
+            favoriteCache.added(currentUserId, pageId);
+        } else {
+            userPageFavoriteRepository.deleteByUserAndPage(currentUserId, pageId);
+            favoriteCache.removed(currentUserId, pageId);
+        }
+
         PageDto pd = new PageDto();
-        pd.setId(p.getId());
-        pd.setTitle(p.getTitle());
-        pd.setIcon(p.getIcon());
-        pd.setFavorite(p.getFavorite());
+        pd.setId(page.getId());
+        pd.setTitle(page.getTitle());
+        pd.setIcon(page.getIcon());
+        pd.setFavorite(favorite);
         return pd;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PageDto> getFavoritePages() {
-        User currentUser = contextService.getCurrentUser();
-        return userPageFavoriteRepository.findFavoritesByUserId(currentUser.getId()).stream()
-                .map(favorite -> {
-                    PageDto dto = favorite.getPage().toDto();
+    public PagedResponse<PageDto> getFavoritePages(String cursor, Integer size) {
+        Long currentUserId = contextService.getCurrentUserId();
+        KeysetCursor before = KeysetCursor.decode(cursor);
+        int pageSize = pagination.resolveSize(size);
+
+        List<UserPageFavorite> favorites = userPageFavoriteRepository.findFavoriteSlice(currentUserId,
+                before != null ? before.getKeyAsDateTime() : KeysetCursor.MAX_TIME,
+                before != null ? before.getId() : KeysetCursor.MAX_ID,
+                PageRequest.of(0, pageSize + 1));
+        // getPage() is an uninitialized proxy here; reading its id doesn't load the row
+        Map<UUID, PageSummary> summaries = pageRepository.findSummariesByIdIn(favorites.stream()
+                        .map(favorite -> favorite.getPage().getId())
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PageSummary::getId, summary -> summary));
+        return PagedResponse.fromSlice(favorites, pageSize,
+                favorite -> KeysetCursor.encode(favorite.getFavoritedAt(), favorite.getPage().getId()),
+                favorite -> {
+                    PageDto dto = summaries.get(favorite.getPage().getId()).toDto();
                     dto.setFavorite(true);
                     return dto;
-                })
-                .collect(Collectors.toList());
+                });
+    }
+    
+    @Override
+    public Long getPageTreeVersion(UUID workspaceId) {
+        verifyWorkspaceAccess(workspaceId, contextService.getCurrentUserId());
+        return pageTreeVersions.current(workspaceId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PageTreeNode> getPageTree(UUID workspaceId) {
+        verifyWorkspaceAccess(workspaceId, contextService.getCurrentUserId());
+
+        List<PageTreeNode> nodes = pageRepository.findTreeNodesByWorkspaceId(workspaceId);
+        Map<UUID, PageTreeNode> byId = new HashMap<>(nodes.size() * 2);
+        for (PageTreeNode node : nodes) {
+            byId.put(node.getId(), node);
+        }
+
+        // Rows come ordered by rank key, so appending keeps siblings in order
+        List<PageTreeNode> roots = new ArrayList<>();
+        for (PageTreeNode node : nodes) {
+            PageTreeNode parent = node.getParentId() != null ? byId.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                // Root pages, plus pages whose parent is archived
+                roots.add(node);
+            }
+        }
+        return roots;
     }
     
     // Helper methods
-    private Page getPageIfHasAccess(UUID pageId, User user) {
+    private String rankKeyAt(UUID workspaceId, UUID parentId, UUID excludeId, Integer index) {
+        String rankKey = parentId != null
+                ? RankKeys.atIndex(index,
+                        offset -> pageRepository.findChildRankKeyWindow(parentId, excludeId, offset),
+                        () -> pageRepository.findMaxChildRankKey(parentId))
+                : RankKeys.atIndex(index,
+                        offset -> pageRepository.findRootRankKeyWindow(workspaceId, excludeId, offset),
+                        () -> pageRepository.findMaxRootRankKey(workspaceId));
+        rankKeyRebalancer.checkKey(RankedTable.PAGES, workspaceId, parentId, rankKey);
+        return rankKey;
+    }
+    
+    private void checkVersion(Page page, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(page.getVersion())) {
+            throw new ConflictException("Page has changed since version " + expectedVersion, page.getVersion());
+        }
+    }
+    
+    // An out-of-row body leaves the row itself unchanged; touching it still bumps version and updatedAt
+    private void touch(Page page) {
+        page.setUpdatedAt(LocalDateTime.now());
+    }
+    
+    // Transaction-aware cache: applied once the surrounding write commits
+    private void evictPage(UUID pageId) {
+        cacheManager.getCache(CacheConfig.PAGES).evict(pageId);
+    }
+    
+    private Page getPageIfHasAccess(UUID pageId, Long userId) {
         Page page = pageRepository.findByIdAndArchivedFalse(pageId)
                 .orElseThrow(() -> new BadRequestException("Page not found"));
         
-        verifyWorkspaceAccess(page.getWorkspace().getId(), user);
+        verifyWorkspaceAccess(page.getWorkspace().getId(), userId);
         return page;
     }
     
-    private Workspace getWorkspaceIfMember(UUID workspaceId, User user) {
+    private Workspace getWorkspaceIfMember(UUID workspaceId, Long userId) {
         Workspace workspace = workspaceRepository.findById(workspaceId)
                 .orElseThrow(() -> new BadRequestException("Workspace not found"));
         
        
-        verifyWorkspaceAccess(workspaceId, user);
+        verifyWorkspaceAccess(workspaceId, userId);
         return workspace;
     }
     
-    private void verifyWorkspaceAccess(UUID workspaceId, User user) {
-        if (!workspaceRepository.existsByIdAndOwnerId(workspaceId, user.getId())) {
+    private void verifyWorkspaceAccess(UUID workspaceId, Long userId) {
+        if (!workspaceAccessCache.isOwner(workspaceId, userId)) {
             throw new BadRequestException("You don't have access to this workspace");
         }
     }
 
 	@Override
-	public List<PageDto> getUserPages(Long userId) {
-		List<Page> pages = pageRepository.findAllByCreatedById(userId);
-		
-        
-		 return pages.stream()
-	                .map(page -> {
-	                    PageDto dto = page.toDto();
-	                    return dto;
-	                })
-	                .collect(Collectors.toList());
+	@Transactional(readOnly = true)
+	public PagedResponse<PageDto> getUserPages(Long userId, String cursor, Integer size) {
+		KeysetCursor after = KeysetCursor.decode(cursor);
+		int pageSize = pagination.resolveSize(size);
+		List<Page> pages = pageRepository.findUserPageSlice(userId,
+				after != null ? after.getId() : KeysetCursor.MIN_ID, PageRequest.of(0, pageSize + 1));
+		Map<UUID, String> contents = contentStore.readAll(ContentOwner.PAGE, pages);
+        
+		return PagedResponse.fromSlice(pages, pageSize,
+				page -> KeysetCursor.encode("", page.getId()),
+				page -> {
+					PageDto dto = page.toDto();
+					dto.setContent(contents.get(page.getId()));
+					return dto;
+				});
 	}
 }
@@ -0,0 +1,61 @@
+package com.masai.notionclone.page.service;
+
+import java.util.UUID;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.masai.notionclone.config.AfterCommit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-workspace change counter for the page tree, shared through Redis. Every
+ * write that can change the tree bumps it after commit; the current value is
+ * the tree's ETag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageTreeVersions {
+
+    private static final String KEY_PREFIX = "page-tree-version:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    // Null when Redis is unavailable; callers then skip conditional handling
+    public Long current(UUID workspaceId) {
+        String key = KEY_PREFIX + workspaceId;
+        try {
+            String version = redisTemplate.opsForValue().get(key);
+            if (version == null) {
+                // Seed from the clock so a lost key can't bring back a version a client already holds
+                redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+                version = redisTemplate.opsForValue().get(key);
+            }
+            return version != null ? Long.valueOf(version) : null;
+        } catch (RuntimeException e) {
+            log.warn("Page tree version unavailable for {}: {}", workspaceId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void bump(UUID workspaceId) {
+        AfterCommit.run(() -> {
+            String key = KEY_PREFIX + workspaceId;
+            try {
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                    redisTemplate.opsForValue().increment(key);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not bump page tree version for {}: {}", workspaceId, e.getMessage());
+                try {
+                    redisTemplate.delete(key);
+                } catch (RuntimeException ignored) {
+                    // Nothing else to do; the next read reseeds from the clock
+                }
+            }
+        });
+    }
+}
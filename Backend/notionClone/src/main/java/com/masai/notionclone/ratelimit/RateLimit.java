@@ -0,0 +1,33 @@
+package com.masai.notionclone.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Token-bucket limit applied to a controller method by {@link RateLimitInterceptor}.
+ * Repeat the annotation to combine per-IP, per-email and global limits. The
+ * numbers here are defaults that properties can override, see
+ * {@link RateLimiter#consume(RateLimit, String)}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
+public @interface RateLimit {
+
+    // Bucket name, shared by every endpoint that uses the same name and scope
+    String name();
+
+    RateLimitScope scope() default RateLimitScope.IP;
+
+    int capacity();
+
+    int refillTokens();
+
+    long refillPeriodSeconds() default 60;
+
+    // Request parameter holding the key for EMAIL scope
+    String keyParam() default "email";
+}
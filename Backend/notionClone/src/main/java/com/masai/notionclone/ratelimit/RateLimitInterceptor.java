@@ -0,0 +1,52 @@
+package com.masai.notionclone.ratelimit;
+
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies {@link RateLimit} annotations on controller methods before the
+ * handler runs, so throttled requests never reach BCrypt, Redis OTP writes
+ * or the mail queue.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Set<RateLimit> limits = AnnotatedElementUtils.findMergedRepeatableAnnotations(
+                ((HandlerMethod) handler).getMethod(), RateLimit.class);
+
+        for (RateLimit limit : limits) {
+            switch (limit.scope()) {
+                case IP:
+                    rateLimiter.consume(limit, rateLimiter.clientIp(request));
+                    break;
+                case EMAIL:
+                    String email = request.getParameter(limit.keyParam());
+                    if (email != null && !email.isBlank()) {
+                        rateLimiter.consume(limit, email.trim().toLowerCase());
+                    }
+                    break;
+                case GLOBAL:
+                    rateLimiter.consume(limit, null);
+                    break;
+            }
+        }
+        return true;
+    }
+}
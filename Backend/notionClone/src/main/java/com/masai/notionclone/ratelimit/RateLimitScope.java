@@ -0,0 +1,5 @@
+package com.masai.notionclone.ratelimit;
+
+public enum RateLimitScope {
+    IP, EMAIL, GLOBAL
+}
@@ -0,0 +1,153 @@
+package com.masai.notionclone.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.masai.notionclone.exception.TooManyRequestsException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token buckets kept in Redis and updated atomically by a Lua script, so every
+ * node shares the same budget. If Redis can't be reached the check degrades to
+ * a per-node in-memory bucket rather than failing open or closed.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    // Returns 0 when a token was available (and taken, unless cost is 0), otherwise the milliseconds until one is
+    private static final RedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1])\n" +
+            "local refill_per_ms = tonumber(ARGV[2])\n" +
+            "local now = tonumber(ARGV[3])\n" +
+            "local cost = tonumber(ARGV[4])\n" +
+            "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')\n" +
+            "local tokens = tonumber(bucket[1]) or capacity\n" +
+            "local ts = tonumber(bucket[2]) or now\n" +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)\n" +
+            "local wait = 0\n" +
+            "if tokens >= 1 then\n" +
+            "  tokens = tokens - cost\n" +
+            "else\n" +
+            "  wait = math.ceil((1 - tokens) / refill_per_ms)\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))\n" +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms))\n" +
+            "return wait",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Environment environment;
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final Cache<String, LocalBucket> localBuckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public RateLimiter(RedisTemplate<String, String> redisTemplate,
+                       Environment environment,
+                       @Value("${ratelimit.enabled:true}") boolean enabled,
+                       @Value("${ratelimit.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        this.redisTemplate = redisTemplate;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    /**
+     * Takes one token from the named bucket or throws {@link TooManyRequestsException}.
+     */
+    public void consume(String bucket, int capacity, int refillTokens, long refillPeriodSeconds) {
+        take(bucket, capacity, refillTokens, refillPeriodSeconds, 1);
+    }
+
+    /**
+     * Throws {@link TooManyRequestsException} if the bucket is empty, without
+     * taking a token; for limits charged only when the attempt fails.
+     */
+    public void check(String bucket, int capacity, int refillTokens, long refillPeriodSeconds) {
+        take(bucket, capacity, refillTokens, refillPeriodSeconds, 0);
+    }
+
+    /**
+     * Annotation values are defaults; ratelimit.limits.<name>.<scope>.capacity,
+     * .refill-tokens and .refill-period-seconds override them.
+     */
+    public void consume(RateLimit limit, String keyValue) {
+        String scope = limit.scope().name().toLowerCase();
+        String bucket = limit.name() + ":" + scope + (keyValue != null ? ":" + keyValue : "");
+        String prefix = "ratelimit.limits." + limit.name() + "." + scope + ".";
+        consume(bucket,
+                environment.getProperty(prefix + "capacity", Integer.class, limit.capacity()),
+                environment.getProperty(prefix + "refill-tokens", Integer.class, limit.refillTokens()),
+                environment.getProperty(prefix + "refill-period-seconds", Long.class, limit.refillPeriodSeconds()));
+    }
+
+    public String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void take(String bucket, int capacity, int refillTokens, long refillPeriodSeconds, int cost) {
+        if (!enabled) {
+            return;
+        }
+        double refillPerMs = refillTokens / (refillPeriodSeconds * 1000.0);
+        String key = "rl:" + bucket;
+        long waitMs = tryConsume(key, capacity, refillPerMs, cost);
+        if (waitMs > 0) {
+            throw new TooManyRequestsException("Too many requests, please try again later",
+                    Math.max(1, (waitMs + 999) / 1000));
+        }
+    }
+
+    private long tryConsume(String key, int capacity, double refillPerMs, int cost) {
+        long now = System.currentTimeMillis();
+        try {
+            Long wait = redisTemplate.execute(TOKEN_BUCKET, List.of(key),
+                    String.valueOf(capacity), String.valueOf(refillPerMs), String.valueOf(now), String.valueOf(cost));
+            return wait != null ? wait : 0;
+        } catch (RuntimeException e) {
+            log.warn("Rate limiter falling back to local buckets: {}", e.getMessage());
+            return localBuckets.get(key, k -> new LocalBucket(capacity)).tryConsume(capacity, refillPerMs, now, cost);
+        }
+    }
+
+    private static final class LocalBucket {
+        private double tokens;
+        private long timestamp;
+
+        private LocalBucket(int capacity) {
+            this.tokens = capacity;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        private synchronized long tryConsume(int capacity, double refillPerMs, long now, int cost) {
+            tokens = Math.min(capacity, tokens + Math.max(0, now - timestamp) * refillPerMs);
+            timestamp = now;
+            if (tokens >= 1) {
+                tokens -= cost;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerMs);
+        }
+    }
+}
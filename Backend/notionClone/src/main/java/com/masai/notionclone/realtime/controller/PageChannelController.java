@@ -0,0 +1,44 @@
+package com.masai.notionclone.realtime.controller;
+
+import com.masai.notionclone.config.AuthenticatedUser;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.realtime.dto.ReplayRequest;
+import com.masai.notionclone.realtime.dto.ReplayResponse;
+import com.masai.notionclone.realtime.service.PageEventBroadcaster;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * Reconnect handshake: subscribe to /topic/pages/{pageId} first, then send the
+ * last applied sequence to /app/pages/{pageId}/replay. The missed events come
+ * back on /user/queue/replay; live events with a lower or equal sequence can
+ * then be dropped.
+ */
+@Controller
+@RequiredArgsConstructor
+public class PageChannelController {
+
+    private final PageEventBroadcaster pageEventBroadcaster;
+    private final WorkspaceAccessCache workspaceAccessCache;
+
+    @MessageMapping("/pages/{pageId}/replay")
+    @SendToUser(value = "/queue/replay", broadcast = false)
+    public ReplayResponse replay(@DestinationVariable UUID pageId, @Payload ReplayRequest request, Principal principal) {
+        Object user = principal instanceof Authentication ? ((Authentication) principal).getPrincipal() : null;
+        UUID workspaceId = workspaceAccessCache.getWorkspaceIdForPage(pageId);
+        if (!(user instanceof AuthenticatedUser) || workspaceId == null
+                || !workspaceAccessCache.isMember(workspaceId, ((AuthenticatedUser) user).getId())) {
+            throw new UnauthorizedException("You don't have access to this page");
+        }
+        return pageEventBroadcaster.replay(pageId, request.getFromSeq());
+    }
+}
@@ -0,0 +1,27 @@
+package com.masai.notionclone.realtime.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.masai.notionclone.block.dto.BlockDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BlockEvent {
+
+    public enum Type { CREATED, UPDATED, MOVED, ARCHIVED, RESTORED }
+
+    private UUID pageId;
+    // Per page, gap-free; a client that sees a jump asks for a replay
+    private long seq;
+    private Type type;
+    private UUID blockId;
+    // State after the change; absent when a whole subtree was archived or restored, which the client reloads
+    private BlockDto block;
+    private Long userId;
+}
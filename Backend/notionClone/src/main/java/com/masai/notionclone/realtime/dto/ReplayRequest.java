@@ -0,0 +1,9 @@
+package com.masai.notionclone.realtime.dto;
+
+import lombok.Data;
+
+@Data
+public class ReplayRequest {
+    // Last sequence the client applied; 0 for none
+    private long fromSeq;
+}
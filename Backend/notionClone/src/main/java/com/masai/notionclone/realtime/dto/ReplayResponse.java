@@ -0,0 +1,19 @@
+package com.masai.notionclone.realtime.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayResponse {
+    private UUID pageId;
+    private long latestSeq;
+    // True when events after fromSeq are no longer retained; reload the page and continue from latestSeq
+    private boolean reset;
+    private List<BlockEvent> events;
+}
@@ -0,0 +1,162 @@
+package com.masai.notionclone.realtime.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.realtime.dto.BlockEvent;
+import com.masai.notionclone.realtime.dto.ReplayResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans block changes out to the /topic/pages/{pageId} STOMP subscribers on
+ * every node. Each event gets the next per-page sequence number and is kept
+ * in a bounded Redis log for replay, both inside one script, so the order of
+ * numbers, log entries and pub/sub messages always agrees. Every node
+ * (including the sender) delivers from the Redis channel to its own sessions.
+ *
+ * Publishing is best effort: it happens after commit and a Redis failure only
+ * costs live viewers an update, which the next replay or reload repairs.
+ */
+@Slf4j
+@Service
+public class PageEventBroadcaster implements MessageListener {
+
+    static final String CHANNEL = "page-events";
+    public static final String TOPIC_PREFIX = "/topic/pages/";
+
+    private static final String SEQ_PREFIX = "page-events:seq:";
+    private static final String LOG_PREFIX = "page-events:log:";
+
+    // KEYS: seq, log. ARGV: pageId, event json, retained count, ttl ms.
+    // Only the log expires: a counter that restarted at 1 would look like old
+    // events to clients still holding a higher sequence, and they'd drop them.
+    private static final RedisScript<Long> APPEND = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[1])\n" +
+            "local entry = seq .. '|' .. ARGV[2]\n" +
+            "redis.call('ZADD', KEYS[2], seq, entry)\n" +
+            "redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -tonumber(ARGV[3]) - 1)\n" +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[4])\n" +
+            "redis.call('PUBLISH', '" + CHANNEL + "', ARGV[1] .. '|' .. entry)\n" +
+            "return seq",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final int retained;
+    private final Duration ttl;
+
+    public PageEventBroadcaster(RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                SimpMessagingTemplate messagingTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${realtime.replay-events:1000}") int retained,
+                                @Value("${realtime.replay-ttl-hours:24}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.retained = retained;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public void blockChanged(UUID pageId, BlockEvent.Type type, BlockDto block, Long userId) {
+        publish(new BlockEvent(pageId, 0, type, block.getId(), block, userId));
+    }
+
+    public void subtreeChanged(UUID pageId, BlockEvent.Type type, UUID blockId, Long userId) {
+        publish(new BlockEvent(pageId, 0, type, blockId, null, userId));
+    }
+
+    /**
+     * Events after {@code fromSeq}, or a reset when some of them have already
+     * dropped out of the retained window.
+     */
+    public ReplayResponse replay(UUID pageId, long fromSeq) {
+        String latest = redisTemplate.opsForValue().get(SEQ_PREFIX + pageId);
+        long latestSeq = latest != null ? Long.parseLong(latest) : 0;
+        if (fromSeq >= latestSeq) {
+            return new ReplayResponse(pageId, latestSeq, fromSeq > latestSeq, List.of());
+        }
+        Set<String> entries = redisTemplate.opsForZSet().rangeByScore(LOG_PREFIX + pageId, fromSeq + 1, latestSeq);
+        List<BlockEvent> events = new ArrayList<>();
+        if (entries != null) {
+            for (String entry : entries) {
+                BlockEvent event = parse(pageId, entry);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+        }
+        boolean complete = !events.isEmpty() && events.get(0).getSeq() == fromSeq + 1;
+        return new ReplayResponse(pageId, latestSeq, !complete, complete ? events : List.of());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int split = body.indexOf('|');
+        if (split < 0) {
+            return;
+        }
+        UUID pageId = UUID.fromString(body.substring(0, split));
+        BlockEvent event = parse(pageId, body.substring(split + 1));
+        if (event != null) {
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + pageId, event);
+        }
+    }
+
+    private void publish(BlockEvent event) {
+        AfterCommit.run(() -> {
+            try {
+                String json = objectMapper.writeValueAsString(event);
+                redisTemplate.execute(APPEND, List.of(SEQ_PREFIX + event.getPageId(), LOG_PREFIX + event.getPageId()),
+                        event.getPageId().toString(), json, String.valueOf(retained), String.valueOf(ttl.toMillis()));
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Could not publish {} of block {}: {}", event.getType(), event.getBlockId(), e.getMessage());
+            }
+        });
+    }
+
+    // Log entries are "seq|json"; the json was written before its number was known
+    private BlockEvent parse(UUID pageId, String entry) {
+        int split = entry.indexOf('|');
+        try {
+            BlockEvent event = objectMapper.readValue(entry.substring(split + 1), BlockEvent.class);
+            event.setSeq(Long.parseLong(entry.substring(0, split)));
+            event.setPageId(pageId);
+            return event;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Skipping unreadable event for page {}: {}", pageId, e.getMessage());
+            return null;
+        }
+    }
+}
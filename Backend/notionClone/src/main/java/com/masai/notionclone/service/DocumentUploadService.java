@@ -9,6 +9,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import com.masai.notionclone.config.TextChunker;
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.model.User;
 import com.masai.notionclone.page.dto.PageDto;
 import com.masai.notionclone.page.service.PageService;
@@ -25,12 +26,20 @@ public class DocumentUploadService {
     @Autowired private PageService pageService;
 
     public void processAndStore(User user) {
-    	List<PageDto> pages = pageService.getUserPages(user.getId());
-    	
     	// ✅ Step 1: Delete existing entries with the same sourceId
         String deleteSql = "DELETE FROM chunk_embedding WHERE source = ?";
         jdbcTemplate.update(deleteSql, user.getId().toString());
         
+        // Walk the user's pages one slice at a time so only a slice is held in memory
+        String cursor = null;
+        do {
+            PagedResponse<PageDto> slice = pageService.getUserPages(user.getId(), cursor, null);
+            storePages(user, slice.getContent());
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+    }
+
+    private void storePages(User user, List<PageDto> pages) {
         for(PageDto info : pages) {
         	String wsUid = info.getWsUid();
         	List<String> chunks = chunker.chunkText(info.getContent(), 500);
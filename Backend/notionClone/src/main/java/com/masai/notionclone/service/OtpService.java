@@ -4,10 +4,12 @@ import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import com.masai.notionclone.ratelimit.RateLimiter;
 import com.masai.notionclone.service.event.UserSignupEvent;
 
 @Service
@@ -19,7 +21,20 @@ public class OtpService {
     @Autowired
     private ApplicationEventPublisher publisher;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${ratelimit.otp.per-email:3}")
+    private int otpPerEmail;
+
+    @Value("${ratelimit.otp.global-per-minute:120}")
+    private int otpGlobalPerMinute;
+
     public void generateAndSendOtp(String email, String name, String type) {
+        // Every OTP means a Redis write and an async email, so cap them per address and overall
+        rateLimiter.consume("otp:email:" + email.trim().toLowerCase(), otpPerEmail, otpPerEmail, 600);
+        rateLimiter.consume("otp:global", otpGlobalPerMinute, otpGlobalPerMinute, 60);
+
         String otp = String.valueOf(new Random().nextInt(900000) + 100000); // 6-digit OTP
         redisTemplate.opsForValue().set("OTP_" + email, otp, 5, TimeUnit.MINUTES); // Store in Redis
 
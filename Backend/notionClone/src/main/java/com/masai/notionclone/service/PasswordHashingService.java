@@ -0,0 +1,104 @@
+package com.masai.notionclone.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.masai.notionclone.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs BCrypt hashing and verification on the dedicated passwordHashExecutor
+ * so a login storm can't pin every request thread. When the pool and its queue
+ * are full the caller gets a fast 503 instead of waiting.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final int bcryptStrength;
+    private final long timeoutMs;
+
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.bcrypt.strength:10}") int bcryptStrength,
+                                  @Value("${security.password-hash.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.bcryptStrength = bcryptStrength;
+        this.timeoutMs = timeoutMs;
+
+        this.hashTimer = Timer.builder("auth.password.hash").tag("operation", "hash").register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.password.hash").tag("operation", "verify").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // True when the stored hash was produced with a different cost than the one configured now
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Authentication service is busy, please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Authentication service is busy, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Authentication was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.masai.notionclone.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.masai.notionclone.exception.UnauthorizedException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque, rotating refresh tokens stored in Redis by digest. Every refresh
+ * consumes the presented token and issues a new one in the same family;
+ * presenting an already-used token revokes the whole family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final String TOKEN_PREFIX = "refresh:";
+    private static final String USED_PREFIX = "refresh-used:";
+    private static final String FAMILY_REVOKED_PREFIX = "refresh-family-revoked:";
+    private static final String USER_FAMILIES_PREFIX = "refresh-user:";
+
+    // Takes the token and leaves the used marker in one step, so a concurrent replay can't
+    // fall between the two. Returns the stored value, "!<family>" for a reused token, or nil.
+    private static final RedisScript<String> CONSUME = new DefaultRedisScript<>(
+            "local stored = redis.call('GET', KEYS[1])\n" +
+            "if stored then\n" +
+            "  redis.call('DEL', KEYS[1])\n" +
+            "  redis.call('SET', KEYS[2], string.match(stored, '|(.+)$'), 'PX', ARGV[1])\n" +
+            "  return stored\n" +
+            "end\n" +
+            "local used = redis.call('GET', KEYS[2])\n" +
+            "if used then\n" +
+            "  return '!' .. used\n" +
+            "end\n" +
+            "return false",
+            String.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration refreshTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RedisTemplate<String, String> redisTemplate,
+                               @Value("${jwt.refresh-expiration:${jwt.expiration}}") long refreshExpirationMs) {
+        this.redisTemplate = redisTemplate;
+        this.refreshTtl = Duration.ofMillis(refreshExpirationMs);
+    }
+
+    // Starts a new token family, e.g. on login
+    public String issue(Long userId) {
+        String familyId = UUID.randomUUID().toString();
+        redisTemplate.opsForSet().add(USER_FAMILIES_PREFIX + userId, familyId);
+        return issue(userId, familyId);
+    }
+
+    /**
+     * Consumes the refresh token and returns the owning user id together with a
+     * freshly issued replacement.
+     */
+    public RotatedToken rotate(String refreshToken) {
+        String digest = digest(refreshToken);
+        String stored = redisTemplate.execute(CONSUME, List.of(TOKEN_PREFIX + digest, USED_PREFIX + digest),
+                String.valueOf(refreshTtl.toMillis()));
+
+        if (stored == null || stored.startsWith("!")) {
+            // Reuse of a rotated token means it leaked: kill the family
+            if (stored != null) {
+                revokeFamily(stored.substring(1));
+            }
+            throw new UnauthorizedException("Invalid or expired refresh token");
+        }
+
+        String[] parts = stored.split("\\|");
+        Long userId = Long.valueOf(parts[0]);
+        String familyId = parts[1];
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(FAMILY_REVOKED_PREFIX + familyId))) {
+            throw new UnauthorizedException("Refresh token has been revoked");
+        }
+
+        return new RotatedToken(userId, issue(userId, familyId));
+    }
+
+    // Logout: revoke the family the presented token belongs to
+    public void revoke(String refreshToken) {
+        String stored = redisTemplate.opsForValue().getAndDelete(TOKEN_PREFIX + digest(refreshToken));
+        if (stored != null) {
+            revokeFamily(stored.split("\\|")[1]);
+        }
+    }
+
+    // Password reset and similar: every session of the user must log in again
+    public void revokeAllForUser(Long userId) {
+        Set<String> families = redisTemplate.opsForSet().members(USER_FAMILIES_PREFIX + userId);
+        if (families != null) {
+            families.forEach(this::revokeFamily);
+        }
+        redisTemplate.delete(USER_FAMILIES_PREFIX + userId);
+    }
+
+    private void revokeFamily(String familyId) {
+        redisTemplate.opsForValue().set(FAMILY_REVOKED_PREFIX + familyId, "1", refreshTtl);
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        redisTemplate.opsForValue().set(TOKEN_PREFIX + digest(token), userId + "|" + familyId, refreshTtl);
+        // The family list must outlive every token in it, or revokeAllForUser misses live families
+        redisTemplate.expire(USER_FAMILIES_PREFIX + userId, refreshTtl);
+        return token;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class RotatedToken {
+        private final Long userId;
+        private final String refreshToken;
+    }
+}
@@ -0,0 +1,111 @@
+package com.masai.notionclone.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.masai.notionclone.config.BloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revoked access-token ids live in a Redis sorted set scored by token expiry.
+ * Each node mirrors the set into a Bloom filter, so the per-request check in
+ * JwtAuthenticationFilter only goes to Redis when the filter says "maybe".
+ */
+@Slf4j
+@Service
+public class TokenRevocationService implements MessageListener {
+
+    private static final String REVOKED_KEY = "revoked-jti";
+    private static final String CHANNEL = "token-revocations";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int expectedRevocations;
+
+    private volatile BloomFilter revoked;
+    // Non-null while rebuild() runs, so revocations arriving mid-rebuild land in both filters
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationService(RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  @Value("${jwt.revocation.expected-size:100000}") int expectedRevocations) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedRevocations = expectedRevocations;
+        this.revoked = new BloomFilter(expectedRevocations, 0.001);
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    public void revoke(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(REVOKED_KEY, jti, expiresAtMillis);
+        remember(jti);
+        redisTemplate.convertAndSend(CHANNEL, jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !revoked.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return redisTemplate.opsForZSet().score(REVOKED_KEY, jti) != null;
+        } catch (RuntimeException e) {
+            // The filter said "maybe" and Redis can't confirm; refuse rather than risk a revoked token
+            log.warn("Could not confirm revocation of {}: {}", jti, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        remember(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void remember(String jti) {
+        revoked.put(jti);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(jti);
+        }
+    }
+
+    // Drops expired ids and rebuilds the filter so it doesn't fill up over time
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+            Long liveCount = redisTemplate.opsForZSet().zCard(REVOKED_KEY);
+
+            rebuilding = new BloomFilter(Math.max(expectedRevocations, liveCount != null ? (int) (liveCount * 2) : 0), 0.001);
+            Set<String> live = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+            if (live != null) {
+                live.forEach(rebuilding::put);
+            }
+            revoked = rebuilding;
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild token revocation filter: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+}
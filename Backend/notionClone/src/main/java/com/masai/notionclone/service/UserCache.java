@@ -0,0 +1,111 @@
+package com.masai.notionclone.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.model.User;
+import com.masai.notionclone.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Small bounded in-process cache for the code paths that still need the full
+ * {@link User} entity. Must be evicted whenever a user row changes; evictions
+ * are applied after commit and broadcast to the other nodes over Redis pub/sub.
+ * Cached users carry no password hash, so the copies handed out are read-only
+ * views and must never be saved.
+ */
+@Slf4j
+@Component
+public class UserCache implements MessageListener {
+
+    static final String CHANNEL = "user-cache-invalidation";
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<Long, User> users;
+
+    public UserCache(UserRepository userRepository,
+                     RedisTemplate<String, String> redisTemplate,
+                     RedisMessageListenerContainer listenerContainer,
+                     @Value("${cache.users.max-size:10000}") long maxSize,
+                     @Value("${cache.users.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        // Evicted explicitly; the TTL only bounds damage from a missed broadcast
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public Optional<User> findById(Long userId) {
+        User cached = users.getIfPresent(userId);
+        if (cached == null) {
+            cached = userRepository.findById(userId).map(UserCache::copyOf).orElse(null);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            users.put(userId, cached);
+        }
+        // Hand out a copy so callers can't mutate the shared instance
+        return Optional.of(copyOf(cached));
+    }
+
+    // Call from the transaction that changes the user row
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            users.invalidate(userId);
+            publish(userId);
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            users.invalidate(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user invalidation message: {}", body);
+        }
+    }
+
+    private void publish(Long userId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, userId.toString());
+        } catch (RuntimeException e) {
+            // Local eviction already happened; remote nodes fall back to the TTL
+            log.warn("Failed to broadcast user invalidation {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Without the password hash
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUniqueName(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), null, user.getRole());
+    }
+}
@@ -3,7 +3,6 @@ package com.masai.notionclone.service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.masai.notionclone.dto.UserDto;
@@ -18,7 +17,7 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
     @Autowired
     private contextService contextService;
@@ -30,7 +29,7 @@ public class UserService {
 
         User user = new User();
         user.setEmail(userDTO.getEmail());
-        user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        user.setPassword(passwordHashingService.hash(userDTO.getPassword()));
         user.setFirstName(userDTO.getFirstName());
         user.setLastName(userDTO.getLastName());
         user.setRole(Role.valueOf("CUSTOMER"));
@@ -42,7 +41,9 @@ public class UserService {
     }
     
     public User updateProfile(UserDto profileDto) {
-        User user = contextService.getCurrentUser();
+        // Load a managed copy rather than the cached instance
+        User user = userRepository.findById(contextService.getCurrentUserId())
+                .orElseThrow(() -> new BadRequestException("User not found"));
 
         if (profileDto.getFirstName() != null) user.setFirstName(profileDto.getFirstName());
         if (profileDto.getLastName() != null) user.setLastName(profileDto.getLastName());
@@ -5,6 +5,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.masai.notionclone.config.AuthenticatedUser;
+import com.masai.notionclone.exception.UnauthorizedException;
 import com.masai.notionclone.model.User;
 import com.masai.notionclone.repository.UserRepository;
 
@@ -13,14 +15,47 @@ public class contextService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    // Loads the full entity; callers that only need the id should use getCurrentUserId()
     public User getCurrentUser() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof AuthenticatedUser) {
+            return userCache.findById(((AuthenticatedUser) principal).getId())
+                    .orElseThrow(() -> new UnauthorizedException("User no longer exists"));
+        }
+
 		String username = "";
 		if (principal instanceof UserDetails) {
 			username = ((UserDetails) principal).getUsername();
 		} else {
 			username = principal.toString();
 		}
-		return userRepository.findByEmail(username).get();
-    } 
+		return userRepository.findByEmail(username)
+				.orElseThrow(() -> new UnauthorizedException("User no longer exists"));
+    }
+
+    // Request-scoped principal from the verified token, no DB round-trip
+    public AuthenticatedUser getCurrentPrincipal() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) principal;
+        }
+        User user = getCurrentUser();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().getId();
+    }
+
+    public String getCurrentUserEmail() {
+        return getCurrentPrincipal().getUsername();
+    }
+
+    // Unloaded proxy for createdBy/updatedBy style associations; only the id is ever read
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
 }
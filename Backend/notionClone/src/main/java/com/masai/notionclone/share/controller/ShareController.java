@@ -1,5 +1,6 @@
 package com.masai.notionclone.share.controller;
 
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.share.dto.SharedPageDto;
 import com.masai.notionclone.share.dto.SharePageRequest;
 import com.masai.notionclone.share.service.ShareService;
@@ -38,9 +39,11 @@ public class ShareController {
 
     @GetMapping("/shared")
     @Operation(summary = "Get shared pages", 
-               description = "Get all pages shared with the current user")
-    public ResponseEntity<List<SharedPageDto>> getSharedPages() {
-        return ResponseEntity.ok(shareService.getSharedPages());
+               description = "Get pages shared with the current user, newest first, one cursor slice at a time")
+    public ResponseEntity<PagedResponse<SharedPageDto>> getSharedPages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(shareService.getSharedPages(cursor, size));
     }
 
     @DeleteMapping("/shared/{shareId}")
@@ -42,9 +42,14 @@ public class Share {
     private boolean isActive = true;
     
     public com.masai.notionclone.share.dto.SharedPageDto toDto() {
+        return toDto(this.page.toDto());
+    }
+    
+    // For listings that resolve the page separately, e.g. as a content-free summary
+    public com.masai.notionclone.share.dto.SharedPageDto toDto(com.masai.notionclone.page.dto.PageDto pageDto) {
         com.masai.notionclone.share.dto.SharedPageDto dto = new com.masai.notionclone.share.dto.SharedPageDto();
         dto.setId(this.id);
-        dto.setPage(this.page.toDto());
+        dto.setPage(pageDto);
         dto.setSharedWithEmail(this.sharedWithEmail);
         dto.setPermission(this.permission);
         dto.setSharedAt(this.sharedAt);
@@ -1,12 +1,14 @@
 package com.masai.notionclone.share.repository;
 
 import com.masai.notionclone.share.model.Share;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +18,14 @@ public interface ShareRepository extends JpaRepository<Share, UUID> {
     
     List<Share> findBySharedWithEmailAndIsActiveTrue(String email);
     
+    // Newest first; rows strictly before (beforeAt, beforeId). The page stays a proxy, its summary is loaded separately
+    @Query("SELECT s FROM Share s " +
+           "WHERE s.sharedWithEmail = :email AND s.isActive = true " +
+           "AND (s.sharedAt < :beforeAt OR (s.sharedAt = :beforeAt AND s.id < :beforeId)) " +
+           "ORDER BY s.sharedAt DESC, s.id DESC")
+    List<Share> findSharedWithSlice(@Param("email") String email, @Param("beforeAt") LocalDateTime beforeAt,
+                                    @Param("beforeId") UUID beforeId, Pageable pageable);
+    
     List<Share> findByPageIdAndIsActiveTrue(UUID pageId);
     
     Optional<Share> findByPageIdAndSharedWithEmailAndIsActiveTrue(UUID pageId, String email);
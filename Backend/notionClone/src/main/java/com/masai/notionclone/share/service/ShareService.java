@@ -1,5 +1,6 @@
 package com.masai.notionclone.share.service;
 
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.share.dto.SharedPageDto;
 import com.masai.notionclone.share.dto.SharePageRequest;
 
@@ -8,7 +9,7 @@ import java.util.UUID;
 
 public interface ShareService {
     SharedPageDto sharePage(UUID pageId, SharePageRequest request);
-    List<SharedPageDto> getSharedPages();
+    PagedResponse<SharedPageDto> getSharedPages(String cursor, Integer size);
     void revokeShare(UUID shareId);
     List<SharedPageDto> searchSharedContent(String query);
 }
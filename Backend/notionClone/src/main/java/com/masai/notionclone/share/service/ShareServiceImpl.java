@@ -1,8 +1,14 @@
 package com.masai.notionclone.share.service;
 
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.dto.KeysetCursor;
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.exception.BadRequestException;
 import com.masai.notionclone.exception.UnauthorizedException;
-import com.masai.notionclone.model.User;
+import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.page.dto.PageSummary;
 import com.masai.notionclone.page.model.Page;
 import com.masai.notionclone.page.repository.PageRepository;
 import com.masai.notionclone.service.contextService;
@@ -10,12 +16,14 @@ import com.masai.notionclone.share.dto.SharedPageDto;
 import com.masai.notionclone.share.dto.SharePageRequest;
 import com.masai.notionclone.share.model.Share;
 import com.masai.notionclone.share.repository.ShareRepository;
-import com.masai.notionclone.workspace.repository.WorkspaceMemberRepository;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,14 +33,15 @@ public class ShareServiceImpl implements ShareService {
 
     private final ShareRepository shareRepository;
     private final PageRepository pageRepository;
-    private final WorkspaceMemberRepository workspaceMemberRepository;
+    private final WorkspaceAccessCache workspaceAccessCache;
     private final contextService contextService;
+    private final Pagination pagination;
+    private final ContentStore contentStore;
 
     @Override
     @Transactional
     public SharedPageDto sharePage(UUID pageId, SharePageRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Page page = getPageIfAccessible(pageId, currentUser);
+        Page page = getPageIfAccessible(pageId, contextService.getCurrentUserId());
         
         // Check if already shared with this email
         if (shareRepository.existsByPageIdAndSharedWithEmailAndIsActiveTrue(pageId, request.getEmail())) {
@@ -44,34 +53,45 @@ public class ShareServiceImpl implements ShareService {
         share.setPage(page);
         share.setSharedWithEmail(request.getEmail());
         share.setPermission(request.getPermission().toUpperCase());
-        share.setSharedBy(currentUser);
+        share.setSharedBy(contextService.getCurrentUserReference());
         share.setActive(true);
         
         Share savedShare = shareRepository.save(share);
-        return savedShare.toDto();
+        return savedShare.toDto(withContent(page, contentStore.read(ContentOwner.PAGE, page)));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<SharedPageDto> getSharedPages() {
-        User currentUser = contextService.getCurrentUser();
-        List<Share> shares = shareRepository.findBySharedWithEmailAndIsActiveTrue(currentUser.getEmail());
+    public PagedResponse<SharedPageDto> getSharedPages(String cursor, Integer size) {
+        String currentEmail = contextService.getCurrentUserEmail();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pagination.resolveSize(size);
+
+        List<Share> shares = shareRepository.findSharedWithSlice(currentEmail,
+                after != null ? after.getKeyAsDateTime() : KeysetCursor.MAX_TIME,
+                after != null ? after.getId() : KeysetCursor.MAX_ID,
+                PageRequest.of(0, pageSize + 1));
         
-        return shares.stream()
-                .map(Share::toDto)
-                .collect(Collectors.toList());
+        // Pages are resolved as content-free summaries in one query for the whole slice
+        Map<UUID, PageSummary> summaries = pageRepository.findSummariesByIdIn(shares.stream()
+                        .map(share -> share.getPage().getId())
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PageSummary::getId, summary -> summary));
+        return PagedResponse.fromSlice(shares, pageSize,
+                share -> KeysetCursor.encode(share.getSharedAt(), share.getId()),
+                share -> share.toDto(summaries.get(share.getPage().getId()).toDto()));
     }
 
     @Override
     @Transactional
     public void revokeShare(UUID shareId) {
-        User currentUser = contextService.getCurrentUser();
+        Long currentUserId = contextService.getCurrentUserId();
         Share share = shareRepository.findById(shareId)
                 .orElseThrow(() -> new BadRequestException("Share not found"));
         
         // Only the owner or the person who shared can revoke
-        if (!share.getPage().getCreatedBy().equals(currentUser.getId()) && 
-            !share.getSharedBy().getId().equals(currentUser.getId())) {
+        if (!share.getPage().getCreatedBy().getId().equals(currentUserId) && 
+            !share.getSharedBy().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You don't have permission to revoke this share");
         }
         
@@ -81,34 +101,39 @@ public class ShareServiceImpl implements ShareService {
     @Override
     @Transactional(readOnly = true)
     public List<SharedPageDto> searchSharedContent(String query) {
-        User currentUser = contextService.getCurrentUser();
-        
         // Search in pages shared with the current user
-        List<Share> shares = shareRepository.findBySharedWithEmailAndIsActiveTrue(currentUser.getEmail());
+        List<Share> shares = shareRepository.findBySharedWithEmailAndIsActiveTrue(contextService.getCurrentUserEmail());
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.PAGE, shares.stream()
+                .map(Share::getPage)
+                .collect(Collectors.toList()));
         
         return shares.stream()
-                .filter(share -> containsQuery(share, query))
-                .map(Share::toDto)
+                .filter(share -> containsQuery(share, contents.get(share.getPage().getId()), query))
+                .map(share -> share.toDto(withContent(share.getPage(), contents.get(share.getPage().getId()))))
                 .collect(Collectors.toList());
     }
     
-    private boolean containsQuery(Share share, String query) {
+    private boolean containsQuery(Share share, String content, String query) {
         if (query == null || query.trim().isEmpty()) {
             return true;
         }
         String lowerQuery = query.toLowerCase();
         return share.getPage().getTitle().toLowerCase().contains(lowerQuery) ||
-               (share.getPage().getContent() != null && 
-                share.getPage().getContent().toLowerCase().contains(lowerQuery));
+               (content != null && content.toLowerCase().contains(lowerQuery));
+    }
+    
+    private PageDto withContent(Page page, String content) {
+        PageDto dto = page.toDto();
+        dto.setContent(content);
+        return dto;
     }
     
-    private Page getPageIfAccessible(UUID pageId, User user) {
+    private Page getPageIfAccessible(UUID pageId, Long userId) {
         Page page = pageRepository.findByIdAndArchivedFalse(pageId)
                 .orElseThrow(() -> new BadRequestException("Page not found"));
         
         // Check if user has access to the page's workspace
-        if (!workspaceMemberRepository.existsByWorkspaceIdAndUserId(
-                page.getWorkspace().getId(), user.getId())) {
+        if (!workspaceAccessCache.isMember(page.getWorkspace().getId(), userId)) {
             throw new UnauthorizedException("You don't have access to this page");
         }
         
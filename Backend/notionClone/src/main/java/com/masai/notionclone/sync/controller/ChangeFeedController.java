@@ -0,0 +1,36 @@
+package com.masai.notionclone.sync.controller;
+
+import com.masai.notionclone.service.contextService;
+import com.masai.notionclone.sync.dto.WorkspaceChangesResponse;
+import com.masai.notionclone.sync.service.WorkspaceChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/workspaces")
+@RequiredArgsConstructor
+@Tag(name = "Sync", description = "Incremental refresh of a workspace's pages and blocks")
+@SecurityRequirement(name = "bearerAuth")
+public class ChangeFeedController {
+
+    private final WorkspaceChangeFeed workspaceChangeFeed;
+    private final contextService contextService;
+
+    @GetMapping("/{workspaceId}/changes")
+    @Operation(summary = "Get pages, blocks and tombstones changed since a cursor",
+               description = "Omit since for a full sync. Keep calling while hasMore is true; " +
+                       "the same row may be returned more than once")
+    public ResponseEntity<WorkspaceChangesResponse> getChanges(
+            @PathVariable UUID workspaceId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(workspaceChangeFeed.getChanges(workspaceId, since, limit,
+                contextService.getCurrentUserId()));
+    }
+}
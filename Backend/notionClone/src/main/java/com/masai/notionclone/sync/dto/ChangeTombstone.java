@@ -0,0 +1,22 @@
+package com.masai.notionclone.sync.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeTombstone {
+
+    public enum Kind { PAGE, BLOCK }
+
+    private Kind kind;
+    private UUID id;
+    // Page the block was on; not set for pages
+    private UUID pageId;
+}
@@ -0,0 +1,23 @@
+package com.masai.notionclone.sync.dto;
+
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.page.dto.PageDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkspaceChangesResponse {
+    // Send back as since on the next call
+    private String cursor;
+    private List<PageDto> pages;
+    private List<BlockDto> blocks;
+    // Archived pages and blocks; drop them locally
+    private List<ChangeTombstone> tombstones;
+    // More changes are waiting; ask again right away
+    private boolean hasMore;
+}
@@ -0,0 +1,74 @@
+package com.masai.notionclone.sync.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.masai.notionclone.exception.BadRequestException;
+
+/**
+ * Opaque position in a workspace's change feed: the (transaction id, change
+ * sequence) of the last row sent, plus the horizon the next round starts from
+ * once this one has been read to the end.
+ */
+final class ChangeCursor {
+
+    private static final String SEPARATOR = ":";
+    // No horizon yet: taken when the first slice of a round is read
+    private static final long UNSET = -1;
+
+    private final long afterXid;
+    private final long afterSeq;
+    private final long horizon;
+
+    private ChangeCursor(long afterXid, long afterSeq, long horizon) {
+        this.afterXid = afterXid;
+        this.afterSeq = afterSeq;
+        this.horizon = horizon;
+    }
+
+    static ChangeCursor start(long fromXid) {
+        return new ChangeCursor(fromXid, UNSET, UNSET);
+    }
+
+    static ChangeCursor of(long afterXid, long afterSeq, long horizon) {
+        return new ChangeCursor(afterXid, afterSeq, horizon);
+    }
+
+    boolean hasHorizon() {
+        return horizon != UNSET;
+    }
+
+    long getAfterXid() {
+        return afterXid;
+    }
+
+    long getAfterSeq() {
+        return afterSeq;
+    }
+
+    long getHorizon() {
+        return horizon;
+    }
+
+    String encode() {
+        String raw = afterXid + SEPARATOR + afterSeq + SEPARATOR + horizon;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A full sync starts before the first transaction
+    static ChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return start(0);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR);
+            if (parts.length != 3 || Long.parseLong(parts[0]) < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.masai.notionclone.sync.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.masai.notionclone.block.dto.BlockDto;
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.block.repository.BlockRepository;
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.content.ContentOwner;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.exception.UnauthorizedException;
+import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.page.model.Page;
+import com.masai.notionclone.page.repository.PageRepository;
+import com.masai.notionclone.sync.dto.ChangeTombstone;
+import com.masai.notionclone.sync.dto.WorkspaceChangesResponse;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Pages and blocks of a workspace changed after a cursor, in (transaction id,
+ * change_seq) order from the covering change indexes.
+ *
+ * Sequence numbers are handed out when a row is written, not when it commits,
+ * so a slow transaction can become visible behind rows already sent. Each
+ * round therefore notes the oldest transaction still running when it started
+ * and the next round re-reads from there: rows may be sent twice, never
+ * skipped. A long-running transaction anywhere in the database holds that
+ * point back and makes rounds repeat more.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkspaceChangeFeed {
+
+    private static final String CHANGES =
+            "(SELECT 'PAGE' AS kind, id, NULL::uuid AS page_id, archived, change_xid, change_seq FROM pages " +
+            "  WHERE workspace_id = ? AND (change_xid, change_seq) > (CAST(? AS xid8), ?) " +
+            "  ORDER BY change_xid, change_seq LIMIT ?) " +
+            "UNION ALL " +
+            "(SELECT 'BLOCK', id, page_id, archived, change_xid, change_seq FROM blocks " +
+            "  WHERE workspace_id = ? AND (change_xid, change_seq) > (CAST(? AS xid8), ?) " +
+            "  ORDER BY change_xid, change_seq LIMIT ?) " +
+            "ORDER BY change_xid, change_seq LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PageRepository pageRepository;
+    private final BlockRepository blockRepository;
+    private final ContentStore contentStore;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final Pagination pagination;
+
+    @Transactional(readOnly = true)
+    public WorkspaceChangesResponse getChanges(UUID workspaceId, String since, Integer limit, Long userId) {
+        if (!workspaceAccessCache.isMember(workspaceId, userId)) {
+            throw new UnauthorizedException("You don't have access to this workspace");
+        }
+        ChangeCursor cursor = ChangeCursor.decode(since);
+        int size = pagination.resolveSize(limit);
+        // Taken before the scan, so it is no later than anything the scan can miss
+        long horizon = cursor.hasHorizon() ? cursor.getHorizon() : Long.parseLong(jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class));
+
+        String afterXid = Long.toString(cursor.getAfterXid());
+        List<Change> changes = jdbcTemplate.query(CHANGES,
+                (rs, rowNum) -> new Change(
+                        ChangeTombstone.Kind.valueOf(rs.getString("kind")),
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("page_id", UUID.class),
+                        rs.getBoolean("archived"),
+                        Long.parseLong(rs.getString("change_xid")),
+                        rs.getLong("change_seq")),
+                workspaceId, afterXid, cursor.getAfterSeq(), size + 1,
+                workspaceId, afterXid, cursor.getAfterSeq(), size + 1,
+                size + 1);
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+
+        List<ChangeTombstone> tombstones = new ArrayList<>();
+        List<UUID> pageIds = new ArrayList<>();
+        List<UUID> blockIds = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.archived) {
+                tombstones.add(new ChangeTombstone(change.kind, change.id, change.pageId));
+            } else if (change.kind == ChangeTombstone.Kind.PAGE) {
+                pageIds.add(change.id);
+            } else {
+                blockIds.add(change.id);
+            }
+        }
+
+        ChangeCursor next;
+        if (hasMore) {
+            Change last = changes.get(changes.size() - 1);
+            next = ChangeCursor.of(last.xid, last.seq, horizon);
+        } else {
+            next = ChangeCursor.start(horizon);
+        }
+        return new WorkspaceChangesResponse(next.encode(),
+                loadPages(pageIds, tombstones),
+                loadBlocks(blockIds, tombstones),
+                tombstones,
+                hasMore);
+    }
+
+    // Rows may have changed again since the scan; a row archived meanwhile becomes a tombstone
+    private List<PageDto> loadPages(List<UUID> ids, List<ChangeTombstone> tombstones) {
+        Map<UUID, Page> pages = pageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Page::getId, Function.identity()));
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.PAGE, pages.values());
+        List<PageDto> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Page page = pages.get(id);
+            if (page == null) {
+                continue;
+            }
+            if (page.isArchived()) {
+                tombstones.add(new ChangeTombstone(ChangeTombstone.Kind.PAGE, id, null));
+                continue;
+            }
+            PageDto dto = page.toDto();
+            dto.setContent(contents.get(id));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private List<BlockDto> loadBlocks(List<UUID> ids, List<ChangeTombstone> tombstones) {
+        Map<UUID, Block> blocks = blockRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Block::getId, Function.identity()));
+        Map<UUID, String> contents = contentStore.readAll(ContentOwner.BLOCK, blocks.values());
+        List<BlockDto> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Block block = blocks.get(id);
+            if (block == null) {
+                continue;
+            }
+            BlockDto dto = block.toDto();
+            if (block.isArchived()) {
+                tombstones.add(new ChangeTombstone(ChangeTombstone.Kind.BLOCK, id, dto.getPageId()));
+                continue;
+            }
+            dto.setContent(contents.get(id));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private static final class Change {
+        private final ChangeTombstone.Kind kind;
+        private final UUID id;
+        private final UUID pageId;
+        private final boolean archived;
+        private final long xid;
+        private final long seq;
+
+        private Change(ChangeTombstone.Kind kind, UUID id, UUID pageId, boolean archived, long xid, long seq) {
+            this.kind = kind;
+            this.id = id;
+            this.pageId = pageId;
+            this.archived = archived;
+            this.xid = xid;
+            this.seq = seq;
+        }
+    }
+}
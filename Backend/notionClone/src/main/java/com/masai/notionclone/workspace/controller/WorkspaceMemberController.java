@@ -1,5 +1,6 @@
 package com.masai.notionclone.workspace.controller;
 
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.workspace.dto.AddMemberRequest;
 import com.masai.notionclone.workspace.dto.WorkspaceMemberDto;
 import com.masai.notionclone.workspace.service.WorkspaceMemberService;
@@ -12,7 +13,6 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.net.URI;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -25,10 +25,12 @@ public class WorkspaceMemberController {
     private final WorkspaceMemberService workspaceMemberService;
 
     @GetMapping
-    @Operation(summary = "Get all members of a workspace")
-    public ResponseEntity<List<WorkspaceMemberDto>> getWorkspaceMembers(
-            @PathVariable UUID workspaceId) {
-        return ResponseEntity.ok(workspaceMemberService.getWorkspaceMembers(workspaceId));
+    @Operation(summary = "Get the members of a workspace, one cursor slice at a time")
+    public ResponseEntity<PagedResponse<WorkspaceMemberDto>> getWorkspaceMembers(
+            @PathVariable UUID workspaceId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(workspaceMemberService.getWorkspaceMembers(workspaceId, cursor, size));
     }
 
     @PostMapping
@@ -10,7 +10,6 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.UUID;
 
 @Data
@@ -53,8 +52,8 @@ public class Workspace {
         dto.setName(this.name);
         dto.setDescription(this.description);
         dto.setPersonal(this.personal);
-        dto.setCreatedAt(LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
-        dto.setUpdatedAt(LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
+        dto.setCreatedAt(this.createdAt);
+        dto.setUpdatedAt(this.updatedAt);
         return dto;
     }
 }
@@ -1,11 +1,13 @@
 package com.masai.notionclone.workspace.repository;
 
 import com.masai.notionclone.workspace.model.WorkspaceMember;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,10 +15,20 @@ import java.util.UUID;
 @Repository
 public interface WorkspaceMemberRepository extends JpaRepository<WorkspaceMember, UUID> {
     List<WorkspaceMember> findByWorkspaceId(UUID workspaceId);
+    
+    // Oldest members first; rows strictly after (afterAt, afterId)
+    @Query("SELECT wm FROM WorkspaceMember wm JOIN FETCH wm.user WHERE wm.workspace.id = :workspaceId " +
+           "AND (wm.joinedAt > :afterAt OR (wm.joinedAt = :afterAt AND wm.id > :afterId)) " +
+           "ORDER BY wm.joinedAt, wm.id")
+    List<WorkspaceMember> findMemberSlice(@Param("workspaceId") UUID workspaceId, @Param("afterAt") LocalDateTime afterAt,
+                                          @Param("afterId") UUID afterId, Pageable pageable);
     Optional<WorkspaceMember> findByWorkspaceIdAndUserId(UUID workspaceId, Long userId);
     boolean existsByWorkspaceIdAndUserId(UUID workspaceId, Long userId);
     void deleteByWorkspaceIdAndUserId(UUID workspaceId, Long userId);
     
     @Query("SELECT COUNT(wm) FROM WorkspaceMember wm WHERE wm.workspace.id = :workspaceId AND wm.role = :role")
     long countByWorkspaceIdAndRole(@Param("workspaceId") UUID workspaceId, @Param("role") String role);
+    
+    @Query("SELECT wm.role FROM WorkspaceMember wm WHERE wm.workspace.id = :workspaceId AND wm.user.id = :userId")
+    Optional<String> findRoleByWorkspaceIdAndUserId(@Param("workspaceId") UUID workspaceId, @Param("userId") Long userId);
 }
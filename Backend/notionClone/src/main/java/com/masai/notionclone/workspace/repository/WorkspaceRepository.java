@@ -2,6 +2,8 @@ package com.masai.notionclone.workspace.repository;
 
 import com.masai.notionclone.workspace.model.Workspace;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,7 @@ import java.util.UUID;
 public interface WorkspaceRepository extends JpaRepository<Workspace, UUID> {
     List<Workspace> findByOwnerId(Long ownerId);
     boolean existsByIdAndOwnerId(UUID id, Long ownerId);
+    
+    @Query("SELECT w.owner.id FROM Workspace w WHERE w.id = :workspaceId")
+    Long findOwnerIdById(@Param("workspaceId") UUID workspaceId);
 }
@@ -0,0 +1,166 @@
+package com.masai.notionclone.workspace.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.masai.notionclone.config.AfterCommit;
+import com.masai.notionclone.page.repository.PageRepository;
+import com.masai.notionclone.workspace.repository.WorkspaceMemberRepository;
+import com.masai.notionclone.workspace.repository.WorkspaceRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the inputs of page/workspace authorization checks:
+ * page -> workspace (immutable, kept until evicted by size), workspace -> owner,
+ * and (workspace, user) -> member role. Membership changes are evicted after
+ * commit and broadcast to the other nodes over Redis pub/sub.
+ */
+@Slf4j
+@Component
+public class WorkspaceAccessCache implements MessageListener {
+
+    static final String CHANNEL = "workspace-access-invalidation";
+
+    private final PageRepository pageRepository;
+    private final WorkspaceRepository workspaceRepository;
+    private final WorkspaceMemberRepository workspaceMemberRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<UUID, UUID> pageWorkspaces;
+    private final Cache<UUID, Long> workspaceOwners;
+    private final Cache<MemberKey, Optional<String>> memberRoles;
+
+    public WorkspaceAccessCache(PageRepository pageRepository,
+                                WorkspaceRepository workspaceRepository,
+                                WorkspaceMemberRepository workspaceMemberRepository,
+                                RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Value("${cache.access.max-size:100000}") long maxSize,
+                                @Value("${cache.access.role-ttl-seconds:600}") long roleTtlSeconds) {
+        this.pageRepository = pageRepository;
+        this.workspaceRepository = workspaceRepository;
+        this.workspaceMemberRepository = workspaceMemberRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.pageWorkspaces = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.workspaceOwners = Caffeine.newBuilder().maximumSize(maxSize).build();
+        // Roles are evicted explicitly; the TTL only bounds damage from a missed broadcast
+        this.memberRoles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(roleTtlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // Null when the page doesn't exist; misses are not cached. Concurrent lookups of one page share a query
+    public UUID getWorkspaceIdForPage(UUID pageId) {
+        return pageWorkspaces.get(pageId, pageRepository::findWorkspaceIdByPageId);
+    }
+
+    public Optional<String> getMemberRole(UUID workspaceId, Long userId) {
+        return memberRoles.get(new MemberKey(workspaceId, userId),
+                key -> workspaceMemberRepository.findRoleByWorkspaceIdAndUserId(workspaceId, userId));
+    }
+
+    public boolean isMember(UUID workspaceId, Long userId) {
+        return getMemberRole(workspaceId, userId).isPresent();
+    }
+
+    public boolean isOwner(UUID workspaceId, Long userId) {
+        Long ownerId = workspaceOwners.get(workspaceId, workspaceRepository::findOwnerIdById);
+        return ownerId != null && ownerId.equals(userId);
+    }
+
+    // Call from the transaction that adds, removes or re-roles a member
+    public void evictMember(UUID workspaceId, Long userId) {
+        AfterCommit.run(() -> {
+            evictMemberLocally(workspaceId, userId);
+            publish("M|" + workspaceId + "|" + userId);
+        });
+    }
+
+    // Call from the transaction that deletes a workspace
+    public void evictWorkspace(UUID workspaceId) {
+        AfterCommit.run(() -> {
+            evictWorkspaceLocally(workspaceId);
+            publish("W|" + workspaceId);
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        try {
+            if ("M".equals(parts[0]) && parts.length == 3) {
+                evictMemberLocally(UUID.fromString(parts[1]), Long.valueOf(parts[2]));
+            } else if ("W".equals(parts[0]) && parts.length == 2) {
+                evictWorkspaceLocally(UUID.fromString(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed access invalidation message: {}", String.join("|", parts));
+        }
+    }
+
+    private void evictMemberLocally(UUID workspaceId, Long userId) {
+        memberRoles.invalidate(new MemberKey(workspaceId, userId));
+    }
+
+    private void evictWorkspaceLocally(UUID workspaceId) {
+        workspaceOwners.invalidate(workspaceId);
+        memberRoles.asMap().keySet().removeIf(key -> key.workspaceId.equals(workspaceId));
+        pageWorkspaces.asMap().values().removeIf(workspaceId::equals);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (RuntimeException e) {
+            // Local eviction already happened; remote nodes fall back to the role TTL
+            log.warn("Failed to broadcast access invalidation {}: {}", message, e.getMessage());
+        }
+    }
+
+    private static final class MemberKey {
+        private final UUID workspaceId;
+        private final Long userId;
+
+        private MemberKey(UUID workspaceId, Long userId) {
+            this.workspaceId = workspaceId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey that = (MemberKey) o;
+            return workspaceId.equals(that.workspaceId) && userId.equals(that.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(workspaceId, userId);
+        }
+    }
+}
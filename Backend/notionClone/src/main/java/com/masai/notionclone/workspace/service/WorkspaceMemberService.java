@@ -1,13 +1,13 @@
 package com.masai.notionclone.workspace.service;
 
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.workspace.dto.AddMemberRequest;
 import com.masai.notionclone.workspace.dto.WorkspaceMemberDto;
 
-import java.util.List;
 import java.util.UUID;
 
 public interface WorkspaceMemberService {
-    List<WorkspaceMemberDto> getWorkspaceMembers(UUID workspaceId);
+    PagedResponse<WorkspaceMemberDto> getWorkspaceMembers(UUID workspaceId, String cursor, Integer size);
     WorkspaceMemberDto addWorkspaceMember(UUID workspaceId, AddMemberRequest request);
     void removeWorkspaceMember(UUID workspaceId, Long userId);
     WorkspaceMemberDto updateWorkspaceMemberRole(UUID workspaceId, Long userId, String role);
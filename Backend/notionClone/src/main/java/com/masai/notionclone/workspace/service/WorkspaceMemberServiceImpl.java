@@ -2,11 +2,14 @@ package com.masai.notionclone.workspace.service;
 
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.dto.KeysetCursor;
+import com.masai.notionclone.dto.PagedResponse;
 import com.masai.notionclone.exception.BadRequestException;
 import com.masai.notionclone.exception.UnauthorizedException;
 import com.masai.notionclone.model.User;
@@ -29,23 +32,30 @@ public class WorkspaceMemberServiceImpl implements WorkspaceMemberService {
     private final WorkspaceRepository workspaceRepository;
     private final UserRepository userRepository;
     private final contextService contextService;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final Pagination pagination;
 
     @Override
     @Transactional(readOnly = true)
-    public List<WorkspaceMemberDto> getWorkspaceMembers(UUID workspaceId) {
+    public PagedResponse<WorkspaceMemberDto> getWorkspaceMembers(UUID workspaceId, String cursor, Integer size) {
         // Verify workspace exists and user has access
         verifyWorkspaceAccess(workspaceId);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = pagination.resolveSize(size);
         
-        return workspaceMemberRepository.findByWorkspaceId(workspaceId).stream()
-                .map(WorkspaceMember::toDto)
-                .collect(Collectors.toList());
+        List<WorkspaceMember> members = workspaceMemberRepository.findMemberSlice(workspaceId,
+                after != null ? after.getKeyAsDateTime() : KeysetCursor.MIN_TIME,
+                after != null ? after.getId() : KeysetCursor.MIN_ID,
+                PageRequest.of(0, pageSize + 1));
+        return PagedResponse.fromSlice(members, pageSize,
+                member -> KeysetCursor.encode(member.getJoinedAt(), member.getId()), WorkspaceMember::toDto);
     }
 
     @Override
     @Transactional
     public WorkspaceMemberDto addWorkspaceMember(UUID workspaceId, AddMemberRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        Workspace workspace = getWorkspaceIfAdmin(workspaceId, currentUser);
+        Long currentUserId = contextService.getCurrentUserId();
+        Workspace workspace = getWorkspaceIfAdmin(workspaceId, currentUserId);
         
         // Find user by email
         User userToAdd = userRepository.findByEmail(request.getEmail())
@@ -63,21 +73,22 @@ public class WorkspaceMemberServiceImpl implements WorkspaceMemberService {
         member.setRole(request.getRole());
         
         WorkspaceMember savedMember = workspaceMemberRepository.save(member);
+        workspaceAccessCache.evictMember(workspaceId, userToAdd.getId());
         return savedMember.toDto();
     }
 
     @Override
     @Transactional
     public void removeWorkspaceMember(UUID workspaceId, Long userId) {
-        User currentUser = contextService.getCurrentUser();
+        Long currentUserId = contextService.getCurrentUserId();
         
         // Only workspace admin can remove members
-        if (!isWorkspaceAdmin(workspaceId, currentUser.getId())) {
+        if (!isWorkspaceAdmin(workspaceId, currentUserId)) {
             throw new UnauthorizedException("Only workspace admin can remove members");
         }
         
         // Prevent removing yourself if you're the only admin
-        if (userId.equals(currentUser.getId())) {
+        if (userId.equals(currentUserId)) {
             long adminCount = workspaceMemberRepository.countByWorkspaceIdAndRole(workspaceId, "ADMIN");
             if (adminCount <= 1) {
                 throw new IllegalStateException("Cannot remove the only admin of the workspace");
@@ -85,20 +96,21 @@ public class WorkspaceMemberServiceImpl implements WorkspaceMemberService {
         }
         
         workspaceMemberRepository.deleteByWorkspaceIdAndUserId(workspaceId, userId);
+        workspaceAccessCache.evictMember(workspaceId, userId);
     }
 
     @Override
     @Transactional
     public WorkspaceMemberDto updateWorkspaceMemberRole(UUID workspaceId, Long userId, String role) {
-        User currentUser = contextService.getCurrentUser();
+        Long currentUserId = contextService.getCurrentUserId();
         
         // Only workspace admin can update roles
-        if (!isWorkspaceAdmin(workspaceId, currentUser.getId())) {
+        if (!isWorkspaceAdmin(workspaceId, currentUserId)) {
             throw new UnauthorizedException("Only workspace admin can update member roles");
         }
         
         // Prevent changing your own role if you're the only admin
-        if (userId.equals(currentUser.getId()) && !"ADMIN".equals(role)) {
+        if (userId.equals(currentUserId) && !"ADMIN".equals(role)) {
             long adminCount = workspaceMemberRepository.countByWorkspaceIdAndRole(workspaceId, "ADMIN");
             if (adminCount <= 1) {
                 throw new IllegalStateException("Cannot remove admin role from the only admin");
@@ -110,17 +122,18 @@ public class WorkspaceMemberServiceImpl implements WorkspaceMemberService {
         
         member.setRole(role);
         WorkspaceMember updatedMember = workspaceMemberRepository.save(member);
+        workspaceAccessCache.evictMember(workspaceId, userId);
         return updatedMember.toDto();
     }
     
-    private Workspace getWorkspaceIfAdmin(UUID workspaceId, User user) {
+    private Workspace getWorkspaceIfAdmin(UUID workspaceId, Long userId) {
         Workspace workspace = workspaceRepository.findById(workspaceId)
                 .orElseThrow(() -> new BadRequestException("Workspace not found"));
         
-        WorkspaceMember member = workspaceMemberRepository.findByWorkspaceIdAndUserId(workspaceId, user.getId())
+        WorkspaceMember member = workspaceMemberRepository.findByWorkspaceIdAndUserId(workspaceId, userId)
                 .orElseThrow(() -> new UnauthorizedException("You are not a member of this workspace"));
         
-        if (!"ADMIN".equals(member.getRole()) && !workspace.getOwner().getId().equals(user.getId())) {
+        if (!"ADMIN".equals(member.getRole()) && !workspace.getOwner().getId().equals(userId)) {
             throw new UnauthorizedException("Only workspace admin can perform this action");
         }
         
@@ -128,14 +141,13 @@ public class WorkspaceMemberServiceImpl implements WorkspaceMemberService {
     }
     
     private boolean isWorkspaceAdmin(UUID workspaceId, Long userId) {
-        return workspaceMemberRepository.findByWorkspaceIdAndUserId(workspaceId, userId)
-                .map(member -> "ADMIN".equals(member.getRole()))
+        return workspaceAccessCache.getMemberRole(workspaceId, userId)
+                .map("ADMIN"::equals)
                 .orElse(false);
     }
     
     private void verifyWorkspaceAccess(UUID workspaceId) {
-        User currentUser = contextService.getCurrentUser();
-        if (!workspaceMemberRepository.existsByWorkspaceIdAndUserId(workspaceId, currentUser.getId())) {
+        if (!workspaceAccessCache.isMember(workspaceId, contextService.getCurrentUserId())) {
             throw new UnauthorizedException("You don't have access to this workspace");
         }
     }
@@ -1,14 +1,16 @@
 package com.masai.notionclone.workspace.service;
 
+import com.masai.notionclone.config.CacheConfig;
+import com.masai.notionclone.content.ContentStore;
 import com.masai.notionclone.service.contextService;
 import com.masai.notionclone.exception.BadRequestException;
 import com.masai.notionclone.exception.UnauthorizedException;
-import com.masai.notionclone.model.User;
 import com.masai.notionclone.workspace.dto.CreateWorkspaceRequest;
 import com.masai.notionclone.workspace.dto.WorkspaceDto;
 import com.masai.notionclone.workspace.model.Workspace;
 import com.masai.notionclone.workspace.repository.WorkspaceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,12 +24,15 @@ public class WorkspaceServiceImpl implements WorkspaceService {
 
     private final WorkspaceRepository workspaceRepository;
     private final contextService contextService;
+    private final WorkspaceAccessCache workspaceAccessCache;
+    private final CacheManager cacheManager;
+    private final ContentStore contentStore;
 
     @Override
     @Transactional(readOnly = true)
     public List<WorkspaceDto> getAllWorkspacesForCurrentUser() {
-        User currentUser = contextService.getCurrentUser();
-        return workspaceRepository.findByOwnerId(currentUser.getId()).stream()
+        Long currentUserId = contextService.getCurrentUserId();
+        return workspaceRepository.findByOwnerId(currentUserId).stream()
                 .map(Workspace::toDto)
                 .collect(Collectors.toList());
     }
@@ -35,13 +40,11 @@ public class WorkspaceServiceImpl implements WorkspaceService {
     @Override
     @Transactional
     public WorkspaceDto createWorkspace(CreateWorkspaceRequest request) {
-        User currentUser = contextService.getCurrentUser();
-        
         Workspace workspace = new Workspace();
         workspace.setName(request.getName());
         workspace.setDescription(request.getDescription());
         workspace.setPersonal(request.isPersonal());
-        workspace.setOwner(currentUser);
+        workspace.setOwner(contextService.getCurrentUserReference());
         
         Workspace savedWorkspace = workspaceRepository.save(workspace);
         return savedWorkspace.toDto();
@@ -50,27 +53,29 @@ public class WorkspaceServiceImpl implements WorkspaceService {
     @Override
     @Transactional(readOnly = true)
     public WorkspaceDto getWorkspaceById(UUID workspaceId) {
-        User currentUser = contextService.getCurrentUser();
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new BadRequestException("Workspace not found"));
+        Long currentUserId = contextService.getCurrentUserId();
+        WorkspaceDto workspace = cacheManager.getCache(CacheConfig.WORKSPACES).get(workspaceId,
+                () -> workspaceRepository.findById(workspaceId)
+                        .orElseThrow(() -> new BadRequestException("Workspace not found"))
+                        .toDto());
         
         // Check if user has access to this workspace
-        if (!workspace.getOwner().getId().equals(currentUser.getId())) {
+        if (!workspaceAccessCache.isOwner(workspaceId, currentUserId)) {
             throw new UnauthorizedException("You don't have permission to access this workspace");
         }
         
-        return workspace.toDto();
+        return workspace;
     }
 
     @Override
     @Transactional
     public WorkspaceDto updateWorkspace(UUID workspaceId, CreateWorkspaceRequest request) {
-        User currentUser = contextService.getCurrentUser();
+        Long currentUserId = contextService.getCurrentUserId();
         Workspace workspace = workspaceRepository.findById(workspaceId)
                 .orElseThrow(() -> new BadRequestException("Workspace not found"));
         
         // Check if user is the owner
-        if (!workspace.getOwner().getId().equals(currentUser.getId())) {
+        if (!workspace.getOwner().getId().equals(currentUserId)) {
             throw new UnauthorizedException("Only workspace owner can update the workspace");
         }
         
@@ -79,21 +84,25 @@ public class WorkspaceServiceImpl implements WorkspaceService {
         workspace.setPersonal(request.isPersonal());
         
         Workspace updatedWorkspace = workspaceRepository.save(workspace);
+        cacheManager.getCache(CacheConfig.WORKSPACES).evict(workspaceId);
         return updatedWorkspace.toDto();
     }
 
     @Override
     @Transactional
     public void deleteWorkspace(UUID workspaceId) {
-        User currentUser = contextService.getCurrentUser();
+        Long currentUserId = contextService.getCurrentUserId();
         Workspace workspace = workspaceRepository.findById(workspaceId)
                 .orElseThrow(() -> new BadRequestException("Workspace not found"));
         
         // Check if user is the owner
-        if (!workspace.getOwner().getId().equals(currentUser.getId())) {
+        if (!workspace.getOwner().getId().equals(currentUserId)) {
             throw new UnauthorizedException("Only workspace owner can delete the workspace");
         }
         
+        contentStore.deleteWorkspace(workspaceId);
         workspaceRepository.delete(workspace);
+        workspaceAccessCache.evictWorkspace(workspaceId);
+        cacheManager.getCache(CacheConfig.WORKSPACES).evict(workspaceId);
     }
 }
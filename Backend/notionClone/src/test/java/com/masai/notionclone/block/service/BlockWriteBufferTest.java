@@ -0,0 +1,198 @@
+package com.masai.notionclone.block.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.masai.notionclone.block.model.Block;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.migration.ContentStorageMigration;
+import com.masai.notionclone.model.User;
+import com.masai.notionclone.oplog.service.BlockOperationLog;
+import com.masai.notionclone.page.model.Page;
+import com.masai.notionclone.workspace.model.Workspace;
+
+/**
+ * Staged bodies against real Redis and Postgres. Not run in a test
+ * transaction: the flush commits on its own, as it does in production.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "blocks.write-behind.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(RedisAutoConfiguration.class)
+@Import({BlockWriteBuffer.class, ContentStore.class, ContentStorageMigration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class BlockWriteBufferTest {
+
+    private static final long USER_ID = 7L;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void connections(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.redis.host", REDIS::getHost);
+        registry.add("spring.redis.port", () -> REDIS.getMappedPort(6379));
+    }
+
+    @TestConfiguration
+    static class Caches {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @MockBean
+    private BlockOperationLog blockOperationLog;
+
+    @Autowired
+    private BlockWriteBuffer blockWriteBuffer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private Block block;
+
+    @BeforeEach
+    void setUp() {
+        block = transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setFirstName("Ada");
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+
+            Workspace workspace = new Workspace();
+            workspace.setName("Docs");
+            workspace.setOwner(user);
+            entityManager.persist(workspace);
+
+            Page page = new Page();
+            page.setTitle("Notes");
+            page.setWorkspace(workspace);
+            page.setCreatedBy(user);
+            page.setUpdatedBy(user);
+            entityManager.persist(page);
+
+            Block created = new Block();
+            created.setType("text");
+            created.setContent("saved");
+            created.setPage(page);
+            created.setRankKey("V");
+            created.setCreatedBy(user.getId());
+            entityManager.persist(created);
+            return created;
+        });
+    }
+
+    @Test
+    void flushWritesStagedBody() {
+        assertThat(blockWriteBuffer.stage(block, "typed", USER_ID)).isTrue();
+
+        blockWriteBuffer.flush();
+
+        assertThat(content()).isEqualTo("typed");
+        assertThat(stagedCount()).isZero();
+    }
+
+    @Test
+    void moveBetweenStageAndFlushKeepsStagedBody() {
+        blockWriteBuffer.stage(block, "typed", USER_ID);
+        // What a move, type change or rebalance does to the row: version moves, the body doesn't
+        jdbcTemplate.update("UPDATE blocks SET rank_key = 'k', version = version + 1 WHERE id = ?", block.getId());
+
+        blockWriteBuffer.flush();
+
+        assertThat(content()).isEqualTo("typed");
+        assertThat(stagedCount()).isZero();
+    }
+
+    @Test
+    void archivedBlockKeepsLastStagedBody() {
+        blockWriteBuffer.stage(block, "typed", USER_ID);
+        jdbcTemplate.update("UPDATE blocks SET archived = true, version = version + 1 WHERE id = ?", block.getId());
+
+        blockWriteBuffer.flush();
+
+        assertThat(content()).isEqualTo("typed");
+    }
+
+    @Test
+    void synchronousBodyWriteWinsOverOlderStagedBody() {
+        blockWriteBuffer.stage(block, "typed", USER_ID);
+        jdbcTemplate.update("UPDATE blocks SET content = 'pasted', content_revision = content_revision + 1, " +
+                "version = version + 1 WHERE id = ?", block.getId());
+
+        blockWriteBuffer.flush();
+
+        assertThat(content()).isEqualTo("pasted");
+        assertThat(stagedCount()).isZero();
+    }
+
+    @Test
+    void stagingAfterSynchronousWriteIsFlushed() {
+        jdbcTemplate.update("UPDATE blocks SET content = 'pasted', content_revision = content_revision + 1 " +
+                "WHERE id = ?", block.getId());
+        block.setContentRevision(block.getContentRevision() + 1);
+
+        blockWriteBuffer.stage(block, "typed", USER_ID);
+        blockWriteBuffer.flush();
+
+        assertThat(content()).isEqualTo("typed");
+    }
+
+    private String content() {
+        return jdbcTemplate.queryForObject("SELECT content FROM blocks WHERE id = ?", String.class, block.getId());
+    }
+
+    private long stagedCount() {
+        return redisTemplate.opsForHash().size("block-buffer:page:" + block.getPage().getId());
+    }
+}
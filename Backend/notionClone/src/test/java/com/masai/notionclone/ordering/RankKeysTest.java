@@ -0,0 +1,151 @@
+package com.masai.notionclone.ordering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+class RankKeysTest {
+
+    @Test
+    void betweenNullAndNullIsAValidKey() {
+        String key = RankKeys.between(null, null);
+
+        assertThat(key).isNotEmpty().doesNotEndWith("0");
+    }
+
+    @Test
+    void betweenAdjacentKeysSortsStrictlyBetween() {
+        String[][] pairs = {
+                {"1", "2"}, {"9", "A"}, {"Z", "a"}, {"y", "z"},
+                {"a", "a1"}, {"a", "az"}, {"a1", "a2"}, {"az", "b"}, {"Zz", "a"}
+        };
+        for (String[] pair : pairs) {
+            String key = RankKeys.between(pair[0], pair[1]);
+
+            assertThat(key).as("between %s and %s", pair[0], pair[1])
+                    .isGreaterThan(pair[0]).isLessThan(pair[1]).doesNotEndWith("0");
+        }
+    }
+
+    @Test
+    void betweenHandlesTheEdgesOfTheAlphabet() {
+        // Below the smallest one-digit key and above the largest one
+        assertThat(RankKeys.between(null, "1")).isGreaterThan("").isLessThan("1").doesNotEndWith("0");
+        assertThat(RankKeys.between("z", null)).isGreaterThan("z");
+        assertThat(RankKeys.between("zz", null)).isGreaterThan("zz");
+        assertThat(RankKeys.between("0z", "1")).isGreaterThan("0z").isLessThan("1");
+    }
+
+    @Test
+    void betweenRejectsKeysOutOfOrder() {
+        assertThatThrownBy(() -> RankKeys.between("b", "a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RankKeys.between("b", "b")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void repeatedAppendsGrowSlowly() {
+        List<String> keys = new ArrayList<>();
+        String last = null;
+        for (int i = 0; i < 1000; i++) {
+            String key = RankKeys.between(last, null);
+            if (last != null) {
+                assertThat(key).isGreaterThan(last);
+            }
+            assertThat(key).doesNotEndWith("0");
+            keys.add(key);
+            last = key;
+        }
+        // One digit per step, so about one extra character per alphabet's worth of appends
+        assertThat(last.length()).isLessThanOrEqualTo(20);
+        assertThat(keys).isSorted();
+    }
+
+    @Test
+    void repeatedPrependsGrowSlowly() {
+        String first = null;
+        for (int i = 0; i < 1000; i++) {
+            String key = RankKeys.between(null, first);
+            if (first != null) {
+                assertThat(key).isLessThan(first);
+            }
+            assertThat(key).isNotEmpty().doesNotEndWith("0");
+            first = key;
+        }
+        assertThat(first.length()).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void repeatedInsertsIntoOneGapStayOrdered() {
+        String low = "1";
+        String high = "2";
+        for (int i = 0; i < 200; i++) {
+            String key = RankKeys.between(low, high);
+
+            assertThat(key).isGreaterThan(low).isLessThan(high).doesNotEndWith("0");
+            high = key;
+        }
+    }
+
+    @Test
+    void atIndexPlacesKeysAroundExistingSiblings() {
+        List<String> siblings = List.of("1", "5", "9");
+        IntFunction<List<String>> window = offset -> siblings.subList(Math.min(offset, siblings.size()),
+                Math.min(offset + 2, siblings.size()));
+
+        assertThat(RankKeys.atIndex(0, window, () -> "9")).isLessThan("1");
+        assertThat(RankKeys.atIndex(1, window, () -> "9")).isGreaterThan("1").isLessThan("5");
+        assertThat(RankKeys.atIndex(3, window, () -> "9")).isGreaterThan("9");
+        assertThat(RankKeys.atIndex(10, window, () -> "9")).isGreaterThan("9");
+        assertThat(RankKeys.atIndex(null, window, () -> "9")).isGreaterThan("9");
+    }
+
+    @Test
+    void atIndexWithoutSiblingsMatchesBetweenNullAndNull() {
+        assertThat(RankKeys.atIndex(0, offset -> List.of(), () -> null)).isEqualTo(RankKeys.between(null, null));
+        assertThat(RankKeys.atIndex(null, offset -> List.of(), () -> null)).isEqualTo(RankKeys.between(null, null));
+    }
+
+    @Test
+    void atIndexPlacesAfterDuplicateKeys() {
+        assertThat(RankKeys.atIndex(1, offset -> List.of("5", "5"), () -> "5")).isGreaterThan("5");
+    }
+
+    @Test
+    void evenlySpacedKeysAreSortedAndTrimmed() {
+        List<String> keys = RankKeys.evenlySpaced(5000);
+
+        assertThat(keys).hasSize(5000).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).allSatisfy(key -> assertThat(key).doesNotEndWith("0"));
+    }
+
+    @Test
+    void stringOrderMatchesByteOrder() {
+        // The "C" collation compares bytes; String.compareTo must agree for every digit
+        char[] digits = RankKeys.DIGITS.toCharArray();
+        char[] sorted = digits.clone();
+        Arrays.sort(sorted);
+        assertThat(sorted).isEqualTo(digits);
+
+        List<String> keys = new ArrayList<>(RankKeys.evenlySpaced(300));
+        String last = null;
+        for (int i = 0; i < 300; i++) {
+            last = RankKeys.between(last, null);
+            keys.add(last);
+        }
+        Collections.shuffle(keys);
+        List<String> byString = new ArrayList<>(keys);
+        byString.sort(Comparator.naturalOrder());
+        List<String> byBytes = new ArrayList<>(keys);
+        byBytes.sort((a, b) -> Arrays.compare(a.getBytes(StandardCharsets.US_ASCII), b.getBytes(StandardCharsets.US_ASCII)));
+        assertThat(byString).isEqualTo(byBytes);
+    }
+}
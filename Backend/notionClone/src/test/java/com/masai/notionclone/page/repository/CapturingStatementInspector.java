@@ -0,0 +1,29 @@
+package com.masai.notionclone.page.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can assert on the
+ * columns a repository method actually reads.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package com.masai.notionclone.page.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.masai.notionclone.model.User;
+import com.masai.notionclone.page.dto.PageSummary;
+import com.masai.notionclone.page.dto.PageTreeNode;
+import com.masai.notionclone.page.model.Page;
+import com.masai.notionclone.workspace.model.Workspace;
+
+/**
+ * Listing queries must never read pages.content; the inspector sees the SQL
+ * Hibernate sends, so a regression to entity fetches shows up here.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.masai.notionclone.page.repository.CapturingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class PageRepositoryTest {
+
+    // Word boundaries keep content_external from matching
+    private static final Pattern CONTENT_COLUMN = Pattern.compile("\\bcontent\\b");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Workspace workspace;
+    private Page root;
+    private Page child;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setFirstName("Ada");
+        user.setEmail("ada@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+
+        workspace = new Workspace();
+        workspace.setName("Docs");
+        workspace.setOwner(user);
+        entityManager.persist(workspace);
+
+        root = page("Root", null, "a0", user);
+        child = page("Child", root, "a0", user);
+        entityManager.flush();
+        entityManager.clear();
+        CapturingStatementInspector.clear();
+    }
+
+    @Test
+    void workspaceSliceSkipsContent() {
+        List<PageSummary> slice = pageRepository.findWorkspacePageSlice(workspace.getId(), "", new UUID(0, 0),
+                PageRequest.of(0, 10));
+
+        assertThat(slice).extracting(PageSummary::getTitle).containsExactlyInAnyOrder("Root", "Child");
+        assertNoContentRead();
+    }
+
+    @Test
+    void childSliceSkipsContent() {
+        List<PageSummary> slice = pageRepository.findChildPageSlice(workspace.getId(), root.getId(), "",
+                new UUID(0, 0), PageRequest.of(0, 10));
+
+        assertThat(slice).extracting(PageSummary::getId).containsExactly(child.getId());
+        assertNoContentRead();
+    }
+
+    @Test
+    void summariesByIdSkipContent() {
+        List<PageSummary> summaries = pageRepository.findSummariesByIdIn(List.of(root.getId(), child.getId()));
+
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries).extracting(PageSummary::getParentId).containsOnlyOnce(root.getId());
+        assertNoContentRead();
+    }
+
+    @Test
+    void treeNodesSkipContent() {
+        List<PageTreeNode> nodes = pageRepository.findTreeNodesByWorkspaceId(workspace.getId());
+
+        assertThat(nodes).hasSize(2);
+        assertNoContentRead();
+    }
+
+    @Test
+    void entityFetchReadsContent() {
+        // Guards the assertion itself: a full entity load must show up as reading content
+        assertThat(pageRepository.findByIdAndArchivedFalse(root.getId())).isPresent();
+
+        assertThat(CapturingStatementInspector.statements())
+                .anyMatch(sql -> CONTENT_COLUMN.matcher(sql).find());
+    }
+
+    private void assertNoContentRead() {
+        assertThat(CapturingStatementInspector.statements())
+                .isNotEmpty()
+                .noneMatch(sql -> CONTENT_COLUMN.matcher(sql).find());
+    }
+
+    private Page page(String title, Page parent, String rankKey, User user) {
+        Page page = new Page();
+        page.setTitle(title);
+        page.setContent("body of " + title);
+        page.setParent(parent);
+        page.setWorkspace(workspace);
+        page.setRankKey(rankKey);
+        page.setCreatedBy(user);
+        page.setUpdatedBy(user);
+        entityManager.persist(page);
+        return page;
+    }
+}
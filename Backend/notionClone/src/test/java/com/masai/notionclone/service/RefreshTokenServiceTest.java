@@ -0,0 +1,148 @@
+package com.masai.notionclone.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.masai.notionclone.exception.UnauthorizedException;
+
+@Testcontainers
+class RefreshTokenServiceTest {
+
+    private static final long TTL_MS = 2000;
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.flushDb();
+            return null;
+        });
+        refreshTokenService = new RefreshTokenService(redisTemplate, TTL_MS);
+    }
+
+    @Test
+    void rotateConsumesTokenAndIssuesReplacement() {
+        String token = refreshTokenService.issue(1L);
+
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(token);
+
+        assertThat(rotated.getUserId()).isEqualTo(1L);
+        assertThat(rotated.getRefreshToken()).isNotEqualTo(token);
+        assertThat(refreshTokenService.rotate(rotated.getRefreshToken()).getUserId()).isEqualTo(1L);
+    }
+
+    @Test
+    void reusedTokenRevokesFamily() {
+        String token = refreshTokenService.issue(1L);
+        String replacement = refreshTokenService.rotate(token).getRefreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(replacement)).isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void concurrentReplayNeverYieldsTwoLiveTokens() throws Exception {
+        String token = refreshTokenService.issue(1L);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<String>> attempts = new ArrayList<>();
+        try {
+            Callable<String> attempt = () -> refreshTokenService.rotate(token).getRefreshToken();
+            attempts.add(executor.submit(attempt));
+            attempts.add(executor.submit(attempt));
+
+            List<String> issued = new ArrayList<>();
+            for (Future<String> future : attempts) {
+                try {
+                    issued.add(future.get());
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(UnauthorizedException.class);
+                }
+            }
+
+            // The loser revokes the family, which may also stop the winner before it issues
+            assertThat(issued).hasSizeLessThanOrEqualTo(1);
+            for (String replacement : issued) {
+                assertThatThrownBy(() -> refreshTokenService.rotate(replacement))
+                        .isInstanceOf(UnauthorizedException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void revokeAllForUserRevokesEveryFamily() {
+        String laptop = refreshTokenService.issue(1L);
+        String phone = refreshTokenService.rotate(refreshTokenService.issue(1L)).getRefreshToken();
+        String otherUser = refreshTokenService.issue(2L);
+
+        refreshTokenService.revokeAllForUser(1L);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(laptop)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone)).isInstanceOf(UnauthorizedException.class);
+        assertThat(refreshTokenService.rotate(otherUser).getUserId()).isEqualTo(2L);
+    }
+
+    @Test
+    void revokeAllForUserReachesFamiliesOlderThanOneTtl() throws InterruptedException {
+        String token = refreshTokenService.issue(1L);
+        Thread.sleep(TTL_MS * 7 / 10);
+        String rotated = refreshTokenService.rotate(token).getRefreshToken();
+        // Past the login's expiry, but the rotated token is still live
+        Thread.sleep(TTL_MS * 7 / 10);
+
+        refreshTokenService.revokeAllForUser(1L);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(rotated)).isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void revokeEndsFamily() {
+        String token = refreshTokenService.issue(1L);
+        String rotated = refreshTokenService.rotate(token).getRefreshToken();
+        String otherSession = refreshTokenService.issue(1L);
+
+        refreshTokenService.revoke(rotated);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(rotated)).isInstanceOf(UnauthorizedException.class);
+        assertThat(refreshTokenService.rotate(otherSession).getUserId()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,182 @@
+package com.masai.notionclone.sync.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.masai.notionclone.config.Pagination;
+import com.masai.notionclone.content.ContentStore;
+import com.masai.notionclone.migration.ChangeSequenceMigration;
+import com.masai.notionclone.migration.ContentStorageMigration;
+import com.masai.notionclone.model.User;
+import com.masai.notionclone.page.dto.PageDto;
+import com.masai.notionclone.sync.dto.WorkspaceChangesResponse;
+import com.masai.notionclone.workspace.model.Workspace;
+import com.masai.notionclone.workspace.service.WorkspaceAccessCache;
+
+/**
+ * The change feed across real, separately committed transactions; the
+ * migration installs the change_seq/change_xid triggers at startup.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({WorkspaceChangeFeed.class, ContentStore.class, Pagination.class,
+        ContentStorageMigration.class, ChangeSequenceMigration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class WorkspaceChangeFeedTest {
+
+    private static final String INSERT_PAGE =
+            "INSERT INTO pages (id, title, content, content_external, workspace_id, archived, version, " +
+            "created_at, updated_at, created_by, updated_by) VALUES (?, ?, ?, false, ?, false, 0, now(), now(), ?, ?)";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @MockBean
+    private WorkspaceAccessCache workspaceAccessCache;
+
+    @Autowired
+    private WorkspaceChangeFeed changeFeed;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+    private Workspace workspace;
+
+    @BeforeEach
+    void setUp() {
+        given(workspaceAccessCache.isMember(any(), any())).willReturn(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            user = new User();
+            user.setFirstName("Ada");
+            user.setEmail(UUID.randomUUID() + "@example.com");
+            user.setPassword("secret");
+            entityManager.persist(user);
+
+            workspace = new Workspace();
+            workspace.setName("Docs");
+            workspace.setOwner(user);
+            entityManager.persist(workspace);
+        });
+    }
+
+    @Test
+    void rowCommittedBehindAnEarlierRoundIsSentNextRound() throws SQLException {
+        UUID slow = UUID.randomUUID();
+        UUID fast = UUID.randomUUID();
+        WorkspaceChangesResponse first;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            // Written first, so it holds the older transaction id and lower sequence number
+            insertPage(connection, slow, "Slow");
+            jdbcTemplate.update(INSERT_PAGE, fast, "Fast", "body", workspace.getId(), user.getId(), user.getId());
+
+            first = changeFeed.getChanges(workspace.getId(), null, null, user.getId());
+            connection.commit();
+        }
+
+        assertThat(first.getPages()).extracting(PageDto::getId).containsExactly(fast);
+        assertThat(first.isHasMore()).isFalse();
+
+        WorkspaceChangesResponse second = changeFeed.getChanges(workspace.getId(), first.getCursor(), null, user.getId());
+
+        assertThat(second.getPages()).extracting(PageDto::getId).contains(slow);
+    }
+
+    @Test
+    void caughtUpCursorReturnsNothingNew() {
+        UUID page = UUID.randomUUID();
+        jdbcTemplate.update(INSERT_PAGE, page, "Only", "body", workspace.getId(), user.getId(), user.getId());
+
+        WorkspaceChangesResponse first = changeFeed.getChanges(workspace.getId(), null, null, user.getId());
+        WorkspaceChangesResponse second = changeFeed.getChanges(workspace.getId(), first.getCursor(), null, user.getId());
+
+        assertThat(first.getPages()).extracting(PageDto::getId).containsExactly(page);
+        assertThat(second.getPages()).isEmpty();
+        assertThat(second.getTombstones()).isEmpty();
+    }
+
+    @Test
+    void slicesOfOneRoundFollowEachOther() {
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update(INSERT_PAGE, UUID.randomUUID(), "Page " + i, "body", workspace.getId(),
+                    user.getId(), user.getId());
+        }
+
+        WorkspaceChangesResponse first = changeFeed.getChanges(workspace.getId(), null, 2, user.getId());
+        WorkspaceChangesResponse second = changeFeed.getChanges(workspace.getId(), first.getCursor(), 2, user.getId());
+
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getPages()).hasSize(2);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getPages()).extracting(PageDto::getTitle).containsExactly("Page 2");
+    }
+
+    @Test
+    void archivedPageComesBackAsTombstone() {
+        UUID page = UUID.randomUUID();
+        jdbcTemplate.update(INSERT_PAGE, page, "Gone", "body", workspace.getId(), user.getId(), user.getId());
+        WorkspaceChangesResponse first = changeFeed.getChanges(workspace.getId(), null, null, user.getId());
+
+        jdbcTemplate.update("UPDATE pages SET archived = true WHERE id = ?", page);
+        WorkspaceChangesResponse second = changeFeed.getChanges(workspace.getId(), first.getCursor(), null, user.getId());
+
+        assertThat(second.getPages()).isEmpty();
+        assertThat(second.getTombstones()).anyMatch(tombstone -> page.equals(tombstone.getId()));
+    }
+
+    private void insertPage(Connection connection, UUID id, String title) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_PAGE)) {
+            ps.setObject(1, id);
+            ps.setString(2, title);
+            ps.setString(3, "body");
+            ps.setObject(4, workspace.getId());
+            ps.setLong(5, user.getId());
+            ps.setLong(6, user.getId());
+            ps.executeUpdate();
+        }
+    }
+}
@@ -118,7 +118,7 @@ const SuggestionModal = ({ isOpen, onClose, suggestions, onSelect, isLoading })
 );
 
 const PageList = () => {
-  const { pages, loadPages, createPage, updatePage, deletePage, toggleFavorite } = usePage();
+  const { pages, hasMorePages, loadMorePages, isLoading, loadPages, createPage, updatePage, deletePage, toggleFavorite } = usePage();
   const [expandedPages, setExpandedPages] = useState(new Set());
   const [editingPage, setEditingPage] = useState(null);
   const [deletingPage, setDeletingPage] = useState(null);
@@ -277,6 +277,15 @@ const PageList = () => {
           />
           {pages.map((page) => renderPage(page))}
         </div>
+        {hasMorePages && (
+          <button
+            onClick={loadMorePages}
+            disabled={isLoading}
+            className="mt-3 w-full px-3 py-1.5 text-sm font-medium text-gray-600 rounded-md hover:bg-gray-100 disabled:opacity-50"
+          >
+            {isLoading ? 'Loading...' : 'Load more'}
+          </button>
+        )}
       </div>
     </div>
   );
@@ -10,6 +10,10 @@ export function PageProvider({ children }) {
   const [pages, setPages] = useState([]);
   const [currentPage, setCurrentPage] = useState(null);
   const [favorites, setFavorites] = useState([]);
+  // Cursors of the next slice; null once a listing is exhausted
+  const [pagesCursor, setPagesCursor] = useState(null);
+  const [pagesParentId, setPagesParentId] = useState(null);
+  const [favoritesCursor, setFavoritesCursor] = useState(null);
   const [isLoading, setIsLoading] = useState(false);
   const [error, setError] = useState(null);
 
@@ -19,7 +23,9 @@ export function PageProvider({ children }) {
     try {
       setIsLoading(true);
       const data = await pageService.getPagesByWorkspace(workspaceId, parentId);
-      setPages(data);
+      setPages(data.content);
+      setPagesCursor(data.nextCursor);
+      setPagesParentId(parentId);
     } catch (err) {
       setError(err.message);
       toast.error(err.message);
@@ -28,6 +34,22 @@ export function PageProvider({ children }) {
     }
   }, [workspaceId]);
 
+  const loadMorePages = useCallback(async () => {
+    if (!workspaceId || !pagesCursor) return;
+
+    try {
+      setIsLoading(true);
+      const data = await pageService.getPagesByWorkspace(workspaceId, pagesParentId, pagesCursor);
+      setPages(prev => [...prev, ...data.content]);
+      setPagesCursor(data.nextCursor);
+    } catch (err) {
+      setError(err.message);
+      toast.error(err.message);
+    } finally {
+      setIsLoading(false);
+    }
+  }, [workspaceId, pagesParentId, pagesCursor]);
+
   const loadPage = useCallback(async (pageId) => {
     try {
       setIsLoading(true);
@@ -138,12 +160,25 @@ export function PageProvider({ children }) {
   const loadFavorites = useCallback(async () => {
     try {
       const data = await pageService.getFavorites();
-      setFavorites(data);
+      setFavorites(data.content);
+      setFavoritesCursor(data.nextCursor);
     } catch (err) {
       toast.error(err.message);
     }
   }, []);
 
+  const loadMoreFavorites = useCallback(async () => {
+    if (!favoritesCursor) return;
+
+    try {
+      const data = await pageService.getFavorites(favoritesCursor);
+      setFavorites(prev => [...prev, ...data.content]);
+      setFavoritesCursor(data.nextCursor);
+    } catch (err) {
+      toast.error(err.message);
+    }
+  }, [favoritesCursor]);
+
   useEffect(() => {
     if (workspaceId) {
       loadPages();
@@ -159,7 +194,11 @@ export function PageProvider({ children }) {
         favorites,
         isLoading,
         error,
+        hasMorePages: !!pagesCursor,
+        hasMoreFavorites: !!favoritesCursor,
         loadPages,
+        loadMorePages,
+        loadMoreFavorites,
         loadPage,
         createPage,
         updatePage,
@@ -1,10 +1,16 @@
 import api from '../lib/api';
 
+// Listings are cursor-paginated: one slice per call, { content, nextCursor }.
+// Callers keep nextCursor and ask for the next slice when the user wants more.
+const fetchSlice = async (url, params = {}, cursor = null) => {
+  const response = await api.get(url, { params: cursor ? { ...params, cursor } : params });
+  return response.data;
+};
+
 export const pageService = {
-  getPagesByWorkspace: async (workspaceId, parentId = null) => {
+  getPagesByWorkspace: async (workspaceId, parentId = null, cursor = null) => {
     const params = parentId ? { parentId } : {};
-    const response = await api.get(`/workspaces/${workspaceId}/pages`, { params });
-    return response.data;
+    return fetchSlice(`/workspaces/${workspaceId}/pages`, params, cursor);
   },
 
   getPageById: async (pageId) => {
@@ -57,8 +63,7 @@ export const pageService = {
     return response.data;
   },
 
-  getFavorites: async () => {
-    const response = await api.get('/favorites');
-    return response.data;
+  getFavorites: async (cursor = null) => {
+    return fetchSlice('/favorites', {}, cursor);
   }
 };